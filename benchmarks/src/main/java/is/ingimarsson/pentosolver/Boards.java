@@ -0,0 +1,90 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Staðlaðar þrautir sem mælingarnar eru keyrðar á.  Rétthyrningarnir
+// eru allir þeir sem 12 fimmferningar fylla, 8x8 er ferningur með
+// 2x2 gati í miðjunni og hinar þrautirnar eru þær sem eru í
+// Pento.main, flestar í athugasemdum.
+final class Boards
+{
+    static final Map<String,String[]> ALL = new LinkedHashMap<String,String[]>();
+
+    static
+    {
+        ALL.put("6x10", rect(6,10));
+        ALL.put("5x12", rect(5,12));
+        ALL.put("4x15", rect(4,15));
+        ALL.put("3x20", rect(3,20));
+        ALL.put("8x8", new String[]{ "        "
+                                   , "        "
+                                   , "        "
+                                   , "   **   "
+                                   , "   **   "
+                                   , "        "
+                                   , "        "
+                                   , "        "
+                                   });
+        ALL.put("holes", new String[]{ "*         *"
+                                     , "   * * *   "
+                                     , " *       * "
+                                     , "   * * *   "
+                                     , " *       * "
+                                     , "   * * *   "
+                                     , "*         *"
+                                     });
+        ALL.put("ring", new String[]{ "           "
+                                    , "           "
+                                    , "           "
+                                    , "   ******* "
+                                    , "   ******* "
+                                    , "   ******* "
+                                    , "   ******* "
+                                    , "           "
+                                    });
+        ALL.put("diagonal", new String[]{ "*  ***    *"
+                                        , "  ***      "
+                                        , "  ***      "
+                                        , "   ***     "
+                                        , "     ***   "
+                                        , "      ***  "
+                                        , "      ***  "
+                                        , "*    ***  *"
+                                        });
+        ALL.put("cross", new String[]{ "***   ***"
+                                     , "***   ***"
+                                     , "***   ***"
+                                     , "         "
+                                     , "         "
+                                     , "         "
+                                     , "***   ***"
+                                     , "***   ***"
+                                     , "***   ***"
+                                     });
+        ALL.put("stairs", new String[]{ "**                    "
+                                      , "*                    *"
+                                      , "                    **"
+                                      });
+    }
+
+    // Notkun: String[] b = Boards.rect(rows,cols);
+    // Fyrir:  rows >= 1, cols >= 1.
+    // Eftir:  b er autt borð með rows línum og cols dálkum.
+    static String[] rect( int rows, int cols )
+    {
+        String[] res = new String[rows];
+        for( int x=0 ; x!=rows ; x++ ) res[x] = " ".repeat(cols);
+        return res;
+    }
+
+    // Notkun: String[] b = Boards.get(name);
+    // Fyrir:  name er eitt af nöfnunum í ALL.
+    // Eftir:  b er þrautin sem heitir name.
+    static String[] get( String name )
+    {
+        String[] res = ALL.get(name);
+        if( res == null ) throw new Error();
+        return res;
+    }
+}
@@ -0,0 +1,71 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Mæling á flutningi lausna milli leitarþráðar og þess sem flakkar,
+// þ.e. á SolutionQueue án nokkurrar leitar.  Einn þráður setur sömu
+// lausnina COUNT sinnum í biðröðina og þráðurinn sem mælir tekur þær
+// allar út aftur.  Tíminn er gefinn fyrir hverja lausn.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class HandoffBenchmark
+{
+    static final int COUNT = 100000;
+
+    @Param({ "1", "16", "1024" })
+    public int capacity;
+
+    private ExecutorService producer;
+    private String[] solution;
+
+    @Setup
+    public void setup()
+    {
+        producer = Executors.newSingleThreadExecutor();
+        solution = Boards.get("6x10");
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        producer.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int handoff()
+        throws Exception
+    {
+        SolutionQueue q = new SolutionQueue(capacity);
+        Future<?> f = producer.submit(
+            ()->
+            {
+                try
+                {
+                    for( int i=0 ; i!=COUNT ; i++ ) q.put(solution);
+                    q.finish(null);
+                }
+                catch( InterruptedException e )
+                {
+                    q.finish(e);
+                }
+            });
+        int n = 0;
+        while( q.hasNext() )
+        {
+            q.next();
+            n++;
+        }
+        f.get();
+        return n;
+    }
+}
@@ -0,0 +1,58 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Mælingar á smæstu aðgerðunum sem leitin byggir á: insert og remove
+// á char[][] borði, og að búa til öll snúningsástönd fimmferninganna
+// með Pento.generateAll().
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class PrimitiveBenchmark
+{
+    private char[][] board;
+    private Pento[] all;
+
+    @Setup
+    public void setup()
+    {
+        board = Pento.makeBoard(Boards.get("6x10"));
+        Pento[][] a = Pento.generateAll();
+        int n = 0;
+        for( Pento[] v: a ) n += v.length;
+        all = new Pento[n];
+        n = 0;
+        for( Pento[] v: a )
+            for( Pento p: v ) all[n++] = p;
+    }
+
+    // Reynir öll 63 snúningsástöndin í reit (2,4) á auðu 6x10 borði
+    // og tekur þau sem passa af aftur.
+    @Benchmark
+    @OperationsPerInvocation(63)
+    public int insertRemove()
+    {
+        int n = 0;
+        for( Pento p: all )
+        {
+            if( Pento.insert(board,2,4,p) )
+            {
+                Pento.remove(board,2,4,p);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Pento[][] generateAll()
+    {
+        return Pento.generateAll();
+    }
+}
@@ -0,0 +1,55 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Mælingar á heildarleit: að telja allar lausnir með flakkara, að
+// telja þær með Pento.countSolutions og tíminn þar til fyrsta lausnin
+// er fundin.  Mæla má eina leitarvél eða eina þraut með t.d.
+//   java -jar target/benchmarks.jar SolveBenchmark -p engine=BITS -p board=6x10
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class SolveBenchmark
+{
+    @Param({ "6x10", "5x12", "4x15", "3x20", "8x8", "holes", "ring", "diagonal", "cross", "stairs" })
+    public String board;
+
+    @Param({ "BITS", "DLX", "CHARS" })
+    public Pento.Engine engine;
+
+    private String[] b;
+
+    @Setup
+    public void setup()
+    {
+        b = Boards.get(board);
+    }
+
+    @Benchmark
+    public long enumerate()
+    {
+        long n = 0;
+        for( String[] s: Pento.makeSolutions(b).engine(engine) ) n++;
+        return n;
+    }
+
+    @Benchmark
+    public String[] firstSolution()
+    {
+        try( Pento.MyIterator it = Pento.makeSolutions(b).engine(engine).iterator() )
+        {
+            return it.hasNext() ? it.next() : null;
+        }
+    }
+
+    @Benchmark
+    public long count()
+    {
+        return Pento.countSolutions(b);
+    }
+}
@@ -4,32 +4,39 @@ import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
 import java.net.URL;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import java.io.*;
 import java.nio.file.Files;
 
-import org.apache.commons.lang3.StringUtils;
 import net.miginfocom.swing.MigLayout;
 
 public class App {
     // Fastayrðing gagna
     //
-    // solutions er listi af þeim lausnum sem finnast þegar
-    // ýtt er á solve takkann. solutionNumber er númer þeirrar
-    // lausnar í listanum sem er á skjánum á þeim tíma. file er
-    // tilvik af þeirri skrá sem verið er að lesa eða skrifa í,
+    // solutions flettir gegnum þær lausnir sem finnast þegar
+    // ýtt er á solve takkann, eða er null ef ekki hefur verið
+    // leyst. solver sækir lausnirnar í bakgrunni, eða er null.
+    // solutionNumber er númer þeirrar lausnar sem er á
+    // skjánum á þeim tíma. file er tilvik af þeirri skrá sem
+    // verið er að lesa eða skrifa í,
     // eða null ef engin skrá er tilgreind. Tvö tilvik af
     // PentoComponent eru tilgreind, mainPento er borðið sem 
     // birtist á editor skjánum og inniheldur aðeins '*' eða ' '.
     // solutionPento birtist þegar ýtt er á solve og sýnir þá
-    // lausn úr solutions listanum sem solutionNumber tilgreinir.
+    // lausn úr solutions sem solutionNumber tilgreinir.
     // Að auki eru tilvik af ýmsum swing components tilgreind hér.
 
-    ArrayList<String[]> solutions;
+    SolutionPager solutions;
+    SwingWorker<Void,Integer> solver;
     int solutionNumber;
 
+    BoardGenerator generator;
+
     File file;
 
     PentoComponent mainPento;
@@ -41,12 +48,35 @@ public class App {
     JButton generateRandomButton;
     JButton resizeButton;
     JButton nextSolutionButton;
+    JButton stopButton;
     JButton playButton;
     JTextField heightField;
     JTextField widthField;
     JLabel solutionLabel;
     JFileChooser jfc;
 
+    // Notkun: a.generateBoard()
+    // Fyrir:  a er tilvik af App
+    // Eftir:  mainPento sýnir nýtt slembið borð af sömu stærð sem víst
+    //         er að hafi lausn, með um fjórðung reita fylltan og eitt
+    //         sett fimmferninga fyrir hverja 60 auða reiti. Ef borðið er
+    //         of lítið eða þröngt fyrir það er sýnd villa.
+    public void generateBoard() {
+        int rows = mainPento.getModel().rows();
+        int cols = mainPento.getModel().cols();
+        if (generator == null || generator.rows() != rows || generator.cols() != cols) {
+            generator = new BoardGenerator(rows, cols);
+        }
+
+        int copies = Math.max(1, rows*cols*3/4/60);
+        String[] s = generator.next(new Random(), copies);
+        if (s == null) {
+            JOptionPane.showMessageDialog(mainFrame, "Could not generate a solvable board of this size.");
+            return;
+        }
+        mainPento.setBoard(BoardGenerator.puzzle(s));
+    }
+
     // Notkun: a.handleOpen()
     // Fyrir:  a er tilvik af App
     // Eftir:  Notandi velur skrá og hún er lesin inn í mainPento
@@ -82,6 +112,120 @@ public class App {
         }
     }
 
+    // Notkun: a.solve(board, copies)
+    // Fyrir:  a er tilvik af App, board er borð með 60*copies auða reiti
+    // Eftir:  Leit að lausnum á board, með copies eintökum af hverjum
+    //         fimmferningi, er hafin í bakgrunni í stað fyrri leitar.
+    //         Lausnarglugginn opnast þegar fyrsta lausnin finnst og
+    //         solutionLabel er uppfært eftir því sem fleiri finnast.
+    public void solve(String[] board, int copies) {
+        stopSolving();
+
+        final SolutionPager pager = new SolutionPager(board, Pento.makeSolutions(board).copies(copies));
+        solutions = pager;
+        solutionNumber = 0;
+
+        solver = new SwingWorker<Void,Integer>() {
+            boolean shown = false;
+
+            protected Void doInBackground() throws InterruptedException {
+                pager.run(n -> publish(n));
+                return null;
+            }
+
+            protected void process(List<Integer> counts) {
+                if (pager != solutions) return;
+
+                if (!shown) {
+                    shown = true;
+                    showSolution();
+                    solutionFrame.setVisible(true);
+                }
+                else {
+                    showLabel();
+                }
+            }
+
+            protected void done() {
+                Throwable error = failure(this);
+                if (error != null) pager.close();
+                if (pager != solutions) return;
+
+                stopButton.setEnabled(false);
+
+                if (pager.size() > 0) {
+                    showLabel();
+                }
+                if (error != null) {
+                    JOptionPane.showMessageDialog(mainFrame, "Search failed: "+error, "Error", JOptionPane.ERROR_MESSAGE);
+                }
+                else if (pager.size() == 0 && !pager.isClosed()) {
+                    JOptionPane.showMessageDialog(mainFrame, "No solutions found");
+                }
+            }
+        };
+
+        stopButton.setEnabled(true);
+        solver.execute();
+    }
+
+    // Notkun: Throwable e = App.failure(worker)
+    // Fyrir:  worker er lokið.
+    // Eftir:  e er villan sem stöðvaði worker, eða null ef það lauk
+    //         eðlilega eða var stöðvað.
+    static Throwable failure(Future<?> worker) {
+        if (worker.isCancelled()) return null;
+
+        try {
+            worker.get();
+            return null;
+        }
+        catch (ExecutionException e) {
+            return e.getCause();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Notkun: a.stopSolving()
+    // Fyrir:  a er tilvik af App
+    // Eftir:  Leitin sem er í gangi, ef einhver, hefur verið stöðvuð.
+    //         Lausnirnar sem þegar eru fundnar eru enn í solutions.
+    public void stopSolving() {
+        if (solver == null) return;
+
+        solutions.close();
+        solver.cancel(true);
+        solver = null;
+        stopButton.setEnabled(false);
+
+        if (solutions.size() > 0) {
+            showLabel();
+        }
+    }
+
+    // Notkun: a.showSolution()
+    // Fyrir:  a er tilvik af App, solutionNumber < solutions.size()
+    // Eftir:  solutionPento birtir lausn númer solutionNumber og
+    //         solutions sækir lausnir fram yfir hana
+    public void showSolution() {
+        solutions.want(solutionNumber);
+        solutionPento.setBoard(solutions.get(solutionNumber));
+        showLabel();
+    }
+
+    // Notkun: a.showLabel()
+    // Fyrir:  a er tilvik af App og solutions er ekki null
+    // Eftir:  solutionLabel segir hvaða lausn er birt og hve margar
+    //         lausnir eru fundnar, með + fyrir aftan ef þær gætu verið
+    //         fleiri
+    public void showLabel() {
+        String more = solutions.isComplete() ? "" : solutions.isClosed() ? " (stopped)" : "+";
+        solutionLabel.setText("Solution "+Integer.toString(solutionNumber+1)+" / "+Integer.toString(solutions.size())+more);
+    }
+
     // Notkun: a.createMenuBar()
     // Fyrir:  a er tilvik af App
     // Eftir:  mainFrame glugginn birtir menu bar með skráaraðgerðum
@@ -157,8 +301,8 @@ public class App {
             public void mouseClicked(MouseEvent e) {
                 super.mouseClicked(e);
 
-                int x = e.getX()*mainPento.getBoard()[0].length()/700;
-                int y = e.getY()*mainPento.getBoard().length/500;
+                int x = e.getX()*mainPento.getModel().cols()/700;
+                int y = e.getY()*mainPento.getModel().rows()/500;
 
                 /*
                 System.out.println(x);
@@ -166,7 +310,6 @@ public class App {
                 */
 
                 mainPento.setBlock(x,y, mainPento.getBlock(x,y) == '*' ? ' ' : '*');
-                mainPento.setBoard(mainPento.getBoard());
             }
         });
 
@@ -182,6 +325,8 @@ public class App {
         openSolutionButton = new JButton("Solve");
         generateRandomButton = new JButton("Generate");
         resizeButton = new JButton("Resize");
+        stopButton = new JButton("Stop");
+        stopButton.setEnabled(false);
 
         heightField = new JTextField(3);
         widthField = new JTextField(3);
@@ -192,13 +337,15 @@ public class App {
                     int h = Integer.parseInt(heightField.getText());
                     int w = Integer.parseInt(widthField.getText());
 
-                    String[] b = new String[h];
-
-                    for (int i=0; i < h; i++) {
-                        b[i] = StringUtils.repeat(" ", w);
-                    }
+                    mainPento.getModel().clear(h, w);
+                }
+            }
+        );
 
-                    mainPento.setBoard(b);
+        stopButton.addActionListener(
+            new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    stopSolving();
                 }
             }
         );
@@ -206,7 +353,7 @@ public class App {
         generateRandomButton.addActionListener(
             new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    mainPento.generateRandom();
+                    generateBoard();
                 }
             }
         );
@@ -216,41 +363,25 @@ public class App {
                 public void actionPerformed(ActionEvent e) {
                     int empty = mainPento.countEmpty();
 
-                    if (empty != 60) {
-                        JOptionPane.showMessageDialog(mainFrame, "Board needs to have exactly 60 empty blocks. Current board has "+Integer.toString(empty)+".");
+                    if (empty == 0 || empty % 60 != 0) {
+                        JOptionPane.showMessageDialog(mainFrame, "Board needs to have a multiple of 60 empty blocks, one full set of pieces per 60. Current board has "+Integer.toString(empty)+".");
                         return;
                     }
 
-                    solutions = new ArrayList<String[]>();
-                    solutionNumber = 0;
-
-                    int n=0;
-                    for( String[] b: Pento.makeSolutions(mainPento.getBoard()) ) {
-                        if (n==100) break;
-                        solutions.add(b);
-                        n++;
-                    }
-
-                    if (solutions.size()==0) {
-                        JOptionPane.showMessageDialog(mainFrame, "No solutions found");  
-                    } 
-                    else {
-                        solutionLabel.setText("Solution 1 / "+Integer.toString(solutions.size()));
-                        solutionPento.setBoard(solutions.get(0));
-                        solutionFrame.setVisible(true);
-                    }
+                    solve(mainPento.getBoard(), empty/60);
                 }
             }
         );
 
         mainFrame.add(mainPento, "cell 0 0 7 1, w 700!, h 500!, gapleft 30");
-        mainFrame.add(new JLabel("Height"), "cell 0 1, gapleft 120");
+        mainFrame.add(new JLabel("Height"), "cell 0 1, gapleft 60");
         mainFrame.add(heightField, "cell 1 1");
         mainFrame.add(new JLabel("Width"), "cell 2 1");
         mainFrame.add(widthField, "cell 3 1");
         mainFrame.add(resizeButton, "cell 4 1");
         mainFrame.add(generateRandomButton, "cell 5 1");
         mainFrame.add(openSolutionButton, "cell 6 1");
+        mainFrame.add(stopButton, "cell 7 1");
 
         mainFrame.setJMenuBar(createMenuBar());
 
@@ -260,9 +391,13 @@ public class App {
         nextSolutionButton.addActionListener(
             new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    solutionNumber = (solutionNumber+1) % 100;
-                    solutionPento.setBoard(solutions.get(solutionNumber));
-                    solutionLabel.setText("Solution "+Integer.toString(solutionNumber+1)+" / "+Integer.toString(solutions.size()));
+                    if (solutionNumber+1 < solutions.size()) {
+                        solutionNumber++;
+                    }
+                    else if (solutions.isComplete() || solutions.isClosed()) {
+                        solutionNumber = 0;
+                    }
+                    showSolution();
                 }
             }
         );
@@ -0,0 +1,260 @@
+package is.ingimarsson.pentosolver;
+
+// Batch er skipanalínuforrit sem leysir margar fimmferningaþrautir
+// án þess að nota Swing, svo það má keyra á netþjónum án skjás.
+//
+// Notkun:
+//   java -cp pentosolver.jar is.ingimarsson.pentosolver.Batch
+//        [-threads n] [-solutions n] [-estimate n] [-out skrá] slóð...
+//
+// Hver slóð er .pento skrá, mappa, og þá eru allar .pento skrár í
+// henni og undirmöppum hennar leystar, eða mynstur eins og
+// 'puzzles/*.pento'.  Skrárnar eru á sama sniði og App.handleOpen
+// les, þ.e. ein lína í skránni fyrir hverja línu borðsins, með bili
+// fyrir auðan reit og stjörnu fyrir fullan.  Borð með 120 eða 180
+// auðum reitum eru leyst með tveimur eða þremur heilum settum, eins
+// og í App.
+//
+// Þrautirnar eru leystar samhliða í n þráðum (sjálfgefið einum fyrir
+// hvern örgjörva).  Um leið og hver þraut er leyst er skrifað, á
+// staðalúttak eða í skrána sem -out tilgreinir, nafn skrárinnar,
+// fjöldi lausna og tíminn sem það tók, og síðan fyrstu lausnirnar
+// (sjálfgefið engin), hver á eftir annarri með auðri línu á eftir.
+// Ef ekki tekst að lesa eða leysa einhverja skrá er það skrifað í
+// stað niðurstöðunnar og forritið skilar stöðunni 1 í lokin.
+//
+// Með -estimate n eru þrautirnar ekki leystar heldur er stærð
+// leitartrés hverrar þeirra og fjöldi lausna metinn með n slembnum
+// leiðum niður tréð, sjá TreeEstimate.  Þannig má sjá fyrirfram hvaða
+// þrautir er raunhæft að leysa.
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+public class Batch
+{
+    // Notkun: Batch.main(args);
+    // Fyrir:  args eru viðföngin sem lýst er að ofan.
+    // Eftir:  Búið er að leysa allar þrautirnar og skrifa
+    //         niðurstöðurnar.  Forritið hættir með stöðu 0 ef allt
+    //         gekk, 1 ef einhver skrá var gölluð og 2 ef viðföngin
+    //         voru ólögleg.
+    public static void main( String[] args )
+        throws IOException, InterruptedException
+    {
+        System.exit(run(args,System.out,System.err));
+    }
+
+    // Notkun: int status = Batch.run(args,out,err);
+    // Fyrir:  args eru viðföngin sem lýst er að ofan, out og err eru
+    //         opnir straumar.
+    // Eftir:  Búið er að leysa allar þrautirnar og skrifa niðurstöðurnar
+    //         í out, eða í skrána sem -out tilgreinir.  Villuboð um
+    //         viðföngin eru skrifuð í err.  status er staðan sem main
+    //         hættir með.
+    static int run( String[] args, PrintStream out, PrintStream err )
+        throws IOException, InterruptedException
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int show = 0;
+        int probes = 0;
+        String outFile = null;
+        List<String> paths = new ArrayList<String>();
+        try
+        {
+            for( int i=0 ; i!=args.length ; i++ )
+            {
+                if( args[i].equals("-threads") )
+                    threads = Integer.parseInt(args[++i]);
+                else if( args[i].equals("-solutions") )
+                    show = Integer.parseInt(args[++i]);
+                else if( args[i].equals("-estimate") )
+                    probes = Integer.parseInt(args[++i]);
+                else if( args[i].equals("-out") )
+                    outFile = args[++i];
+                else
+                    paths.add(args[i]);
+            }
+        }
+        catch( NumberFormatException | ArrayIndexOutOfBoundsException e )
+        {
+            paths.clear();
+        }
+        if( paths.isEmpty() || threads < 1 || show < 0 || probes < 0 )
+        {
+            err.println("Usage: Batch [-threads n] [-solutions n] [-estimate n] [-out file] path...");
+            return 2;
+        }
+
+        Set<Path> files = new LinkedHashSet<Path>();
+        for( String p: paths ) files.addAll(expand(p));
+
+        PrintStream res = outFile == null ? out : new PrintStream(new FileOutputStream(outFile),false,"UTF-8");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> done = new ArrayList<Future<Boolean>>();
+        final int n = show, k = probes;
+        try
+        {
+            for( Path f: files )
+            {
+                done.add(pool.submit(
+                    ()->
+                    {
+                        StringBuilder report = new StringBuilder();
+                        boolean ok;
+                        try
+                        {
+                            ok = k > 0 ? estimate(f,k,report) : solve(f,n,report);
+                        }
+                        catch( Throwable e )
+                        {
+                            // Villa í leitinni, t.d. Error úr BitSearch eða
+                            // OutOfMemoryError, stöðvar aðeins þessa skrá.
+                            report.setLength(0);
+                            report.append(f).append(": error: ").append(e).append('\n');
+                            ok = false;
+                        }
+                        synchronized( res )
+                        {
+                            res.print(report);
+                            res.flush();
+                        }
+                        return ok;
+                    }));
+            }
+            int status = 0;
+            for( Future<Boolean> d: done )
+            {
+                try
+                {
+                    if( !d.get() ) status = 1;
+                }
+                catch( ExecutionException e )
+                {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+            return status;
+        }
+        finally
+        {
+            pool.shutdownNow();
+            if( res != out ) res.close();
+        }
+    }
+
+    // Notkun: List<Path> files = Batch.expand(p);
+    // Fyrir:  p er slóð á skrá eða möppu, eða mynstur.
+    // Eftir:  files eru skrárnar sem p tilgreinir, í stafrófsröð.  Ef p
+    //         er mappa þá eru það allar .pento skrár í henni og undir-
+    //         möppum hennar, ef p inniheldur einhvern af stöfunum *?[{
+    //         þá eru það allar skrár sem passa við p sem mynstur (glob),
+    //         og annars er það p sjálf.
+    static List<Path> expand( String p )
+        throws IOException
+    {
+        int g = 0;
+        while( g != p.length() && "*?[{".indexOf(p.charAt(g)) < 0 ) g++;
+        Path base;
+        PathMatcher m;
+        if( g == p.length() )
+        {
+            base = Paths.get(p);
+            if( !Files.isDirectory(base) ) return Collections.singletonList(base);
+            m = FileSystems.getDefault().getPathMatcher("glob:**.pento");
+        }
+        else
+        {
+            int slash = Math.max(p.lastIndexOf('/',g),p.lastIndexOf(File.separatorChar,g));
+            base = Paths.get(slash < 0 ? "" : p.substring(0,slash+1));
+            m = FileSystems.getDefault().getPathMatcher("glob:"+p);
+        }
+        List<Path> res = new ArrayList<Path>();
+        try( Stream<Path> s = Files.walk(base) )
+        {
+            s.filter(f -> Files.isRegularFile(f) && m.matches(f)).sorted().forEach(res::add);
+        }
+        return res;
+    }
+
+    // Notkun: String[] board = Batch.read(f);
+    // Fyrir:  f er slóð á skrá.
+    // Eftir:  board er borðið í f, ein lína í board fyrir hverja línu
+    //         í f.  Línuskil geta verið bæði \n og \r\n.
+    static String[] read( Path f )
+        throws IOException
+    {
+        String content = new String(Files.readAllBytes(f),StandardCharsets.UTF_8);
+        return content.split("\r?\n");
+    }
+
+    // Notkun: boolean ok = Batch.estimate(f,probes,report);
+    // Fyrir:  f er slóð á skrá, probes >= 1.
+    // Eftir:  Búið er að bæta við report einni línu með nafni f og mati
+    //         á stærð leitartrésins og fjölda lausna á þrautinni í f,
+    //         fengnu með probes slembnum leiðum.  Ef ekki tókst að lesa
+    //         þrautina er ok ósatt og report inniheldur villuboð.
+    static boolean estimate( Path f, int probes, StringBuilder report )
+    {
+        long start = System.nanoTime();
+        try
+        {
+            String[] board = read(f);
+            if( board.length == 0 || board[0].isEmpty() ) throw new IOException("empty board");
+            TreeEstimate e = TreeEstimate.of(probes,f.toString().hashCode(),board);
+            long ms = (System.nanoTime()-start)/1000000;
+            report.append(f).append(": ").append(e).append(", ").append(ms).append(" ms\n");
+            return true;
+        }
+        catch( IOException | RuntimeException e )
+        {
+            report.setLength(0);
+            report.append(f).append(": error: ").append(e).append('\n');
+            return false;
+        }
+    }
+
+    // Notkun: boolean ok = Batch.solve(f,n,report);
+    // Fyrir:  f er slóð á skrá, n >= 0.
+    // Eftir:  Búið er að bæta við report einni línu með nafni f,
+    //         fjölda lausna á þrautinni í f og tímanum sem tók að leysa
+    //         hana, og síðan fyrstu n lausnunum.  Ef ekki tókst að lesa
+    //         eða leysa þrautina er ok ósatt og report inniheldur
+    //         villuboð í stað niðurstöðunnar.
+    static boolean solve( Path f, int n, StringBuilder report )
+    {
+        long start = System.nanoTime();
+        try
+        {
+            String[] board = read(f);
+            if( board.length == 0 || board[0].isEmpty() ) throw new IOException("empty board");
+            // Ein leit telur allar lausnirnar og geymir þær n fyrstu.
+            // Ef engar lausnir á að skrifa býr hún ekki til neina hluti.
+            List<String[]> first = new ArrayList<String[]>();
+            Pento.Sink keep = n == 0 ? null : b -> { if( first.size() != n ) first.add(b); };
+            BitSearch s = new BitSearch(new BitBoard(Pento.library(),Pento.makeBoard(board)),keep,false);
+            int[] copies = new int[Pento.library().length];
+            Arrays.fill(copies,Pento.sets(board));
+            s.copies(copies);
+            long count = s.count(Long.MAX_VALUE);
+            long ms = (System.nanoTime()-start)/1000000;
+            report.append(f).append(": ").append(count).append(" solutions, ").append(ms).append(" ms\n");
+            for( String[] b: first )
+            {
+                for( String line: b ) report.append(line).append('\n');
+                report.append('\n');
+            }
+            return true;
+        }
+        catch( IOException | RuntimeException e )
+        {
+            report.setLength(0);
+            report.append(f).append(": error: ").append(e).append('\n');
+            return false;
+        }
+    }
+}
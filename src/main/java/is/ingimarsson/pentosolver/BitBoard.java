@@ -0,0 +1,280 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.Arrays;
+
+// Tilvik af BitBoard er fimmferningaþraut sem búið er að þýða yfir
+// á bitamengi.  Reitirnir í char[][] borði b eru númeraðir dálk fyrir
+// dálk, þ.e. reitur b[x][y] fær númerið y*rows+x.  Fyrsti auði reitur
+// borðsins í þeirri röð sem Pento.generateSolutions leitar í er þá
+// lægsti núllbitinn í mengi upptekinna reita.
+//
+// Þýðingin reiknar fyrirfram, fyrir hvern reit c, allar staðsetningar
+// (placements) fimmferninga sem hafa fyrsta punkt í c, eru innan
+// borðsins og þekja aðeins auða reiti.  Staðsetningarnar eru geymdar
+// í flötum fylkjum, flokkaðar eftir reitum, og hver þeirra hefur sitt
+// bitamengi.  Innsta lykkja leitarinnar fer því aðeins yfir þær
+// staðsetningar sem geta passað og þarf aðeins eitt AND til að vita
+// hvort staðsetning passar og eitt OR til að setja hana á borðið.
+
+final class BitBoard
+{
+    final Pento[][] a;
+    final char[][] template;
+    final int rows, cols, size, words, stride;
+    final long[] start;
+    final int[] first;
+    final int[] placeCell, placePiece, placeVariant;
+    final long[] mask;
+    final long[] wide;
+    final long[] notTop, notBottom;
+    final int[] cells;
+    final int[] coverFirst, cover;
+    final int[] pieceFirst, byPiece;
+    // Fastayrðing gagna.
+    //  a er safn allra fimmferninga eins og útkoman úr Pento.generateAll()
+    //  og template er upphaflega borðið.  Borðið hefur rows línur og cols
+    //  dálka og size = rows*cols reiti sem komast fyrir í words orðum.
+    //  start er mengi þeirra reita sem eru uppteknir í upphafi, þ.e.
+    //  innihalda annað en ' ' eða eru utan styttri lína borðsins, auk
+    //  allra bita handan við reit size-1.  start hefur words+stride-1
+    //  orð og aukaorðin eru full.
+    //  Staðsetningar með fyrsta punkt í reit c hafa númer p þar sem
+    //  first[c] <= p < first[c+1], og eru í sömu röð og a[i][j] í
+    //  Pento.generateSolutions, þ.e. eftir i og svo j.  Staðsetning p
+    //  er a[placePiece[p]][placeVariant[p]] með fyrsta punkt í reit
+    //  placeCell[p].
+    //  Ef size <= 64 þá er mask[p] bitamengi reitanna sem p þekur og
+    //  wide er null.  Annars er mask null og wide[p*stride+k] er orð
+    //  (placeCell[p]>>>6)+k í bitamengi p, fyrir 0 <= k < stride.
+    //  notTop og notBottom hafa words orð og eru mengi þeirra reita sem
+    //  ekki eru í efstu línu, og ekki í neðstu línu, borðsins.
+    //  cells[5*p..5*p+4] eru reitirnir sem staðsetning p þekur.
+    //  cover[coverFirst[c]..coverFirst[c+1]-1] eru allar staðsetningar
+    //  sem þekja reit c og byPiece[pieceFirst[i]..pieceFirst[i+1]-1]
+    //  eru allar staðsetningar fimmfernings i, í vaxandi röð.
+
+    // Notkun: BitBoard bb = new BitBoard(a,board);
+    // Fyrir:  a er Pento[][] eins og útkoman úr Pento.generateAll(),
+    //         board er char[][] með a.m.k. eina línu og engin null
+    //         undirfylki.
+    // Eftir:  bb er þrautin board þýdd yfir á bitamengi.
+    BitBoard( Pento[][] a, char[][] board )
+    {
+        this.a = a;
+        this.template = board;
+        rows = board.length;
+        int c = 0;
+        for( char[] line: board ) c = Math.max(c,line.length);
+        cols = c;
+        size = rows*cols;
+        words = (size+63)>>>6;
+
+        int n = 0, span = 1;
+        int[] pc = new int[256], pi = new int[256], pj = new int[256];
+        first = new int[size+1];
+        for( int k=0 ; k!=size ; k++ )
+        {
+            first[k] = n;
+            for( int i=0 ; i!=a.length ; i++ )
+            {
+                for( int j=0 ; j!=a[i].length ; j++ )
+                {
+                    int top = top(board,k,a[i][j]);
+                    if( top < 0 ) continue;
+                    span = Math.max(span,(top>>>6)-(k>>>6)+1);
+                    if( n == pc.length )
+                    {
+                        pc = Arrays.copyOf(pc,2*n);
+                        pi = Arrays.copyOf(pi,2*n);
+                        pj = Arrays.copyOf(pj,2*n);
+                    }
+                    pc[n] = k;
+                    pi[n] = i;
+                    pj[n] = j;
+                    n++;
+                }
+            }
+        }
+        first[size] = n;
+        placeCell = Arrays.copyOf(pc,n);
+        placePiece = Arrays.copyOf(pi,n);
+        placeVariant = Arrays.copyOf(pj,n);
+        stride = size <= 64 ? 1 : span;
+
+        start = new long[words+stride-1];
+        Arrays.fill(start,-1L);
+        for( int k=0 ; k!=size ; k++ )
+        {
+            int x = k%rows, y = k/rows;
+            if( y < board[x].length && board[x][y] == ' ' ) start[k>>>6] &= ~(1L<<k);
+        }
+
+        notTop = new long[words];
+        notBottom = new long[words];
+        for( int k=0 ; k!=size ; k++ )
+        {
+            if( k%rows != 0 ) notTop[k>>>6] |= 1L<<k;
+            if( k%rows != rows-1 ) notBottom[k>>>6] |= 1L<<k;
+        }
+
+        mask = size <= 64 ? new long[n] : null;
+        wide = size <= 64 ? null : new long[n*stride];
+        cells = new int[5*n];
+        coverFirst = new int[size+1];
+        pieceFirst = new int[a.length+1];
+        for( int p=0 ; p!=n ; p++ )
+        {
+            Pento f = a[placePiece[p]][placeVariant[p]];
+            int x = row(placeCell[p]), y = col(placeCell[p]);
+            int base = placeCell[p] & ~63;
+            for( int i=0 ; i!=5 ; i++ )
+            {
+                int k = (y+f.getY(i))*rows+x+f.getX(i);
+                int bit = k-base;
+                if( mask != null )
+                    mask[p] |= 1L<<bit;
+                else
+                    wide[p*stride+(bit>>>6)] |= 1L<<bit;
+                cells[5*p+i] = k;
+                coverFirst[k+1]++;
+            }
+            pieceFirst[placePiece[p]+1]++;
+        }
+        for( int k=0 ; k!=size ; k++ ) coverFirst[k+1] += coverFirst[k];
+        for( int i=0 ; i!=a.length ; i++ ) pieceFirst[i+1] += pieceFirst[i];
+        cover = new int[5*n];
+        byPiece = new int[n];
+        int[] nextCover = Arrays.copyOf(coverFirst,size);
+        int[] nextPiece = Arrays.copyOf(pieceFirst,a.length);
+        for( int p=0 ; p!=n ; p++ )
+        {
+            for( int i=0 ; i!=5 ; i++ ) cover[nextCover[cells[5*p+i]]++] = p;
+            byPiece[nextPiece[placePiece[p]]++] = p;
+        }
+    }
+
+    // Notkun: int top = top(board,k,p);
+    // Fyrir:  0 <= k < size, p er löglegur fimmferningur.
+    // Eftir:  Ef p, með fyrsta punkt í reit k, er innan borðsins og
+    //         þekur aðeins auða reiti þá er top hæsta reitanúmerið sem
+    //         p þekur, annars er top -1.
+    private int top( char[][] board, int k, Pento p )
+    {
+        int x = k%rows, y = k/rows;
+        int top = -1;
+        for( int i=0 ; i!=5 ; i++ )
+        {
+            int px = x+p.getX(i), py = y+p.getY(i);
+            if( px < 0 || px >= rows || py >= board[px].length ) return -1;
+            if( board[px][py] != ' ' ) return -1;
+            top = Math.max(top,py*rows+px);
+        }
+        return top;
+    }
+
+    // Notkun: int n = bb.placements();
+    // Fyrir:  Ekkert.
+    // Eftir:  n er fjöldi staðsetninga á bb.
+    int placements()
+    {
+        return placeCell.length;
+    }
+
+    // Notkun: int x = bb.row(k);
+    // Fyrir:  0 <= k < size.
+    // Eftir:  x er línunúmer reits k.
+    int row( int k )
+    {
+        return k%rows;
+    }
+
+    // Notkun: int y = bb.col(k);
+    // Fyrir:  0 <= k < size.
+    // Eftir:  y er dálknúmer reits k.
+    int col( int k )
+    {
+        return k/rows;
+    }
+
+    // Notkun: String[] b = bb.render(ps,n);
+    // Fyrir:  ps[0..n-1] eru staðsetningar á bb sem skarast ekki.
+    // Eftir:  b er nýtt borð sem sýnir upphaflega borðið ásamt
+    //         fimmferningunum í ps[0..n-1].
+    String[] render( int[] ps, int n )
+    {
+        char[][] b = new char[template.length][];
+        for( int x=0 ; x!=b.length ; x++ ) b[x] = template[x].clone();
+        for( int d=0 ; d!=n ; d++ )
+        {
+            int p = ps[d];
+            Pento f = a[placePiece[p]][placeVariant[p]];
+            int x = row(placeCell[p]), y = col(placeCell[p]);
+            for( int k=0 ; k!=5 ; k++ ) b[x+f.getX(k)][y+f.getY(k)] = f.getName();
+        }
+        String[] res = new String[b.length];
+        for( int x=0 ; x!=b.length ; x++ ) res[x] = new String(b[x]);
+        return res;
+    }
+
+    // Notkun: int[] ps = bb.tiling(b);
+    // Fyrir:  b er strengjafylki.
+    // Eftir:  Ef b er lausn á bb, þ.e. eins og upphaflega borðið nema
+    //         hvað auðu reitirnir eru merktir með nöfnum fimmferninga
+    //         sem þekja þá, þá eru ps staðsetningarnar í fyrstu
+    //         skiptingu auðu reitanna í fimmferninga með sömu stöfum og
+    //         þeir hafa í b, í þeirri röð sem leit eftir fyrsta auða reit
+    //         finnur þær.  render(ps,ps.length) er þá jafnt b.  Annars er
+    //         ps null.
+    int[] tiling( String[] b )
+    {
+        if( b.length != rows ) return null;
+        for( int x=0 ; x!=rows ; x++ )
+            if( b[x].length() != template[x].length ) return null;
+        boolean[] taken = new boolean[size];
+        int empty = 0;
+        for( int k=0 ; k!=size ; k++ )
+        {
+            int x = row(k), y = col(k);
+            taken[k] = (start[k>>>6]>>>k & 1) != 0;
+            if( !taken[k] )
+                empty++;
+            else if( y < template[x].length && b[x].charAt(y) != template[x][y] )
+                return null;
+        }
+        if( empty%5 != 0 ) return null;
+        int[] found = new int[empty/5];
+        return tile(b,taken,found,0) ? found : null;
+    }
+
+    // Notkun: boolean ok = bb.tile(b,taken,found,d);
+    // Fyrir:  taken[k] er satt fyrir reiti k sem þegar er búið að skipta,
+    //         found[0..d-1] eru staðsetningarnar sem skipta þeim.
+    // Eftir:  ok er satt þá og því aðeins að skipta megi hinum reitunum
+    //         í fimmferninga með sömu stöfum og þeir hafa í b, og þá er
+    //         found[0..] fyrsta slík skipting í leitarröð.  taken er
+    //         óbreytt.
+    private boolean tile( String[] b, boolean[] taken, int[] found, int d )
+    {
+        int c = 0;
+        while( c != size && taken[c] ) c++;
+        if( c == size ) return true;
+        char name = b[row(c)].charAt(col(c));
+        for( int p=first[c] ; p!=first[c+1] ; p++ )
+        {
+            if( a[placePiece[p]][0].getName() != name ) continue;
+            boolean ok = true;
+            for( int k=5*p ; k!=5*p+5 && ok ; k++ )
+            {
+                int q = cells[k];
+                ok = !taken[q] && b[row(q)].charAt(col(q)) == name;
+            }
+            if( !ok ) continue;
+            for( int k=5*p ; k!=5*p+5 ; k++ ) taken[cells[k]] = true;
+            found[d] = p;
+            boolean done = tile(b,taken,found,d+1);
+            for( int k=5*p ; k!=5*p+5 ; k++ ) taken[cells[k]] = false;
+            if( done ) return true;
+        }
+        return false;
+    }
+}
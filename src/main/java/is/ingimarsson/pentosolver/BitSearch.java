@@ -0,0 +1,1311 @@
+package is.ingimarsson.pentosolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.DoubleAdder;
+
+// Tilvik af BitSearch leitar að lausnum á þraut sem búið er að
+// þýða yfir á bitamengi með BitBoard.  Leitin er sú sama og í
+// Pento.generateSolutions, þ.e. fyrsti auði reitur í dálkaröð er
+// fylltur með öllum ónotuðum fimmferningum í öllum snúningsástöndum,
+// í sömu röð, svo lausnirnar koma í sömu röð og þar.
+//
+// Auk þess er, eftir hverja staðsetningu, athugað hvort eitthvert
+// samhangandi svæði auðra reita við fimmferninginn sem var settur
+// hafi stærð sem ekki er margfeldi af 5.  Slíkt svæði er ekki hægt að
+// fylla og þá er ekki leitað lengra.  Svæðin eru fundin með flæðifyllingu
+// (flood fill) á bitamengjum.  Þetta breytir ekki lausnunum né röð þeirra,
+// en sleppir hlutborðum sem ekki leiða til lausnar og því er það ekki
+// gert þegar hlutborð eru send í sink.
+//
+// Með fewestOptions er í staðinn fylltur sá auði reitur sem fæstar
+// staðsetningar passa í.  Fyrir hverja staðsetningu er haldið utan um
+// hve margar ástæður eru fyrir því að hún passi ekki lengur (reitur
+// hennar upptekinn eða fimmferningurinn notaður) og fyrir hvern reit
+// hve margar staðsetningar sem þekja hann passa enn.  Þessar tölur eru
+// uppfærðar í hvert sinn sem fimmferningur er settur eða tekinn, svo
+// val á reit kostar aðeins eina umferð yfir auðu reitina.  Reitur sem
+// engin staðsetning passar í stöðvar leitina strax.  Ef nota á alla
+// fimmferningana er á sama hátt haldið utan um hve margar staðsetningar
+// hvers ónotaðs fimmfernings passa, og ef einhver þeirra á færri
+// möguleika en besti reiturinn þá er greint eftir honum í staðinn.
+//
+// Stærð leitartrésins má meta með probe, sem fer eina slembna leið frá
+// rót niður í lauf (aðferð Knuths).  Framvindu leitar má fylgjast með
+// með track, sem telur hve stór hluti greinanna í efstu PROGRESS_LEVELS
+// þrepum trésins er búinn.
+//
+// Með checkpoints er staða leitarinnar vistuð reglulega í skrá, sjá
+// Checkpoint, og með resume heldur leit áfram frá slíkri vistun.  Til
+// þess að vistun kosti sem minnst er klukkan aðeins skoðuð í hverjum
+// CHECK_NODES hnútum.
+//
+// Með split er leitartrénu skipt í sjálfstæð verk, eitt fyrir hvern
+// hnút á tiltekinni dýpt, og með prefix leitar BitSearch aðeins í
+// undirtré eins slíks hnúts.  Hnúturinn er gefinn sem númer
+// staðsetninganna á leiðinni að honum.
+
+final class BitSearch
+{
+    // Fjöldi þrepa efst í leitartrénu sem framvinda er mæld í.
+    static final int PROGRESS_LEVELS = 2;
+
+    // Fjöldi hnúta milli þess sem athugað er hvort vista eigi stöðuna.
+    static final int CHECK_NODES = 4096;
+
+    private final BitBoard bb;
+    private final Pento.Sink sink;
+    private Pento.RecordSink records = null;
+    private final boolean partial;
+    private final int[] left;
+    private final int[] path;
+    private final long[] occ;
+    private final boolean prune;
+    private final long[] free, seeds, region, grown;
+    private int depth = 0;
+    private long solutions = 0;
+    private long limit = Long.MAX_VALUE;
+    private Symmetry sym = null;
+    private boolean expand = false;
+    private int xPiece = -1;
+    private int[] xPlacements = null;
+    private int[] killed = null;
+    private int[] options = null;
+    private final SearchStats.Counters stats;
+    private DoubleAdder progress = null;
+    private Path saveTo = null;
+    private String saveKey = null;
+    private long saveNanos = 0;
+    private long nextSave = 0;
+    private int tick = CHECK_NODES;
+    private Checkpoint resumeFrom = null;
+    // Fastayrðing gagna.
+    //  Búið er að setja depth fimmferninga á borðið bb.  Fimmferningur
+    //  númer d, 0 <= d < depth, er í staðsetningu path[d] á bb.
+    //  prune er satt ef dauð svæði eru klippt burt, og þá eru free,
+    //  seeds, region og grown vinnusvæði fyrir flæðifyllingu á breiðum
+    //  borðum.
+    //  left[i] er fjöldi eintaka af fimmferningi i sem enn má setja á
+    //  borðið, þ.e. upphaflegur fjöldi að frádregnum þeim sem þegar eru
+    //  á borðinu.  Ef bb er breitt borð (bb.wide er
+    //  ekki null) þá er occ mengi upptekinna reita, annars er það mengi
+    //  geymt í viðföngum leitarinnar á meðan leitað er, en er í occ[0]
+    //  þegar leit er ekki í gangi.
+    //  Lausnir eru sendar í sink ef sink er ekki null, og sem númer
+    //  staðsetninga í records ef records er ekki null.  solutions er
+    //  fjöldi lausna sem fundnar eru og leitin hættir þegar hann nær
+    //  limit.
+    //  Ef sym er ekki null þá eru aðeins sendar lausnir sem eru fyrstar
+    //  í stafrófsröð meðal mynda sinna undir sym, eða allar myndir
+    //  þeirra ef expand er satt.  Ef xPlacements er ekki null þá er
+    //  fimmferningur xPiece (X) settur fyrstur á borðið og aðeins í
+    //  staðsetningarnar í xPlacements, þ.e. þær sem hafa fyrsta punkt
+    //  í reit með lægst númer meðal mynda sinna undir sym.
+    //  Ef killed er null þá er fyllt í fyrsta auða reitinn.  Annars er
+    //  fyllt í þann auða reit sem fæstar staðsetningar passa í og
+    //  killed[p] er fjöldi reita staðsetningar p sem eru uppteknir að
+    //  viðbættu 1 ef engin eintök eru eftir af fimmferningi hennar, og
+    //  options[c] er fjöldi staðsetninga q sem þekja reit c og hafa
+    //  killed[q]==0.
+    //  Ef nota á alla fimmferningana er options[bb.size+i] á sama hátt
+    //  fjöldi staðsetninga fimmfernings i með killed 0, annars hefur
+    //  options aðeins bb.size sæti.  Aðeins er greint eftir fimmferningi
+    //  ef eitt eintak er eftir af honum, því annars fyndist sama lausnin
+    //  einu sinni fyrir hverja röð eintakanna.
+    //  stats telur hnúta og staðsetningar ef SearchStats.ON er satt,
+    //  annars er það null.
+    //  Ef progress er ekki null þá er bætt við það hlutfalli hverrar
+    //  greinar í efstu PROGRESS_LEVELS þrepum leitarinnar af öllu trénu
+    //  um leið og leit í henni lýkur.  Afrit af leit fá ekki progress.
+    //  Ef saveTo er ekki null þá er staðan vistuð í skrána saveTo með
+    //  lyklinum saveKey í fyrsta hnút sem leitin kemur í eftir tímann
+    //  nextSave (á kvarða System.nanoTime), og síðan á saveNanos
+    //  nanósekúndna fresti.  tick er fjöldi hnúta þar til næst er gáð
+    //  á klukkuna.  Ef resumeFrom er ekki null þá heldur leitin, þegar
+    //  hún er keyrð, áfram frá þeirri vistun.
+
+    // Notkun: BitSearch s = new BitSearch(bb,sink,partial);
+    // Fyrir:  bb er þýdd þraut, sink tekur við lausnum eða er null
+    //         ef aðeins á að telja þær.
+    // Eftir:  s er ný leit sem, þegar hún er keyrð, sendir allar lausnir
+    //         á bb í sink og ef partial er satt einnig öll hlutborð
+    //         sem verða til í leitinni.
+    BitSearch( BitBoard bb, Pento.Sink sink, boolean partial )
+    {
+        this.bb = bb;
+        this.sink = sink;
+        this.partial = partial;
+        left = new int[bb.a.length];
+        Arrays.fill(left,1);
+        path = new int[bb.size/5+1];
+        occ = bb.start.clone();
+        prune = !partial;
+        free = new long[bb.words];
+        seeds = new long[bb.words];
+        region = new long[bb.words];
+        grown = new long[bb.words];
+        stats = SearchStats.ON ? new SearchStats.Counters("BITS",empty()) : null;
+    }
+
+    // Notkun: BitSearch t = new BitSearch(s);
+    // Fyrir:  s er leit sem ekki er í gangi.
+    // Eftir:  t er ný leit sem byrjar í sömu stöðu og s, þ.e. með
+    //         sömu fimmferningum á borðinu.
+    private BitSearch( BitSearch s )
+    {
+        bb = s.bb;
+        sink = s.sink;
+        records = s.records;
+        partial = s.partial;
+        left = s.left.clone();
+        path = s.path.clone();
+        occ = s.occ.clone();
+        prune = s.prune;
+        free = new long[bb.words];
+        seeds = new long[bb.words];
+        region = new long[bb.words];
+        grown = new long[bb.words];
+        stats = SearchStats.ON ? new SearchStats.Counters("BITS",s.stats.cells) : null;
+        depth = s.depth;
+        limit = s.limit;
+        sym = s.sym;
+        expand = s.expand;
+        xPiece = s.xPiece;
+        xPlacements = s.xPlacements;
+        if( s.killed != null )
+        {
+            killed = s.killed.clone();
+            options = s.options.clone();
+        }
+    }
+
+    // Notkun: s.copies(n);
+    // Fyrir:  s hefur ekki verið keyrð og enginn fimmferningur er
+    //         kominn á borðið, n[i] >= 0 fyrir öll i, n.length er fjöldi
+    //         fimmferninga í bb.a.
+    // Eftir:  Þegar s er keyrð notar hún í mesta lagi n[i] eintök af
+    //         fimmferningi i í hverri lausn, í stað eins.  Leitin telur
+    //         aðeins hve mörg eintök eru eftir, svo hver skipting borðsins
+    //         í fimmferninga er aðeins fundin einu sinni, sama hvernig
+    //         eintökunum er raðað.  Tvö eintök hlið við hlið geta myndað
+    //         svæði sem skipta má á fleiri en einn hátt í tvo slíka
+    //         fimmferninga; það eru ólíkar skiptingar og þær eru allar
+    //         taldar, þó að þær líti eins út.
+    void copies( int[] n )
+    {
+        System.arraycopy(n,0,left,0,left.length);
+    }
+
+    // Notkun: s.records(r);
+    // Fyrir:  s hefur ekki verið keyrð, leitar ekki að hlutlausnum og
+    //         ekki aðeins að ólíkum lausnum.
+    // Eftir:  Þegar s er keyrð sendir hún hverja lausn í r sem númer
+    //         staðsetninga fimmferninganna í bb, auk þess að senda hana
+    //         í sink ef sink er ekki null.
+    void records( Pento.RecordSink r )
+    {
+        if( partial || sym != null ) throw new Error();
+        records = r;
+    }
+
+    // Notkun: s.track(progress);
+    // Fyrir:  s hefur ekki verið keyrð.
+    // Eftir:  Á meðan s er keyrð er bætt við progress þeim hluta
+    //         leitartrésins sem lokið er, svo progress er 1, að
+    //         námundunarskekkju slepptri, þegar leitinni lýkur.  Hver grein
+    //         í efstu PROGRESS_LEVELS þrepunum telst jafnstór systrum
+    //         sínum.
+    void track( DoubleAdder progress )
+    {
+        this.progress = progress;
+    }
+
+    // Notkun: s.checkpoints(f,key,millis);
+    // Fyrir:  s hefur ekki verið keyrð, millis >= 0.
+    // Eftir:  Þegar s er keyrð, ekki samhliða, vistar hún stöðu sína í
+    //         skrána f með lyklinum key á u.þ.b. millis millisekúndna
+    //         fresti.  Vistunin er gerð í hnút, áður en leitað er í
+    //         honum, svo allar lausnir sem taldar eru í vistuninni hafa
+    //         þegar verið sendar í sink.  Ef ekki tekst að skrifa f er
+    //         UncheckedIOException kastað og leitin stöðvast.
+    void checkpoints( Path f, String key, long millis )
+    {
+        saveTo = f;
+        saveKey = key;
+        saveNanos = millis*1000000;
+        nextSave = System.nanoTime()+saveNanos;
+    }
+
+    // Notkun: s.resume(c);
+    // Fyrir:  s hefur ekki verið keyrð og engir fimmferningar eru
+    //         komnir á borðið aðrir en þeir sem settir voru með prefix.
+    //         c er vistun leitar með sömu þraut, sömu stillingum og
+    //         sama prefix og s, sem ekki er lokið.
+    // Eftir:  Þegar s er keyrð heldur hún áfram þar sem leitin í c var
+    //         komin, og s telur þær c.solutions lausnir sem fundnar voru
+    //         á undan með.
+    void resume( Checkpoint c )
+    {
+        resumeFrom = c;
+        solutions = c.solutions;
+    }
+
+    // Notkun: long n = s.solutions();
+    // Fyrir:  s er ekki í gangi.
+    // Eftir:  n er fjöldi lausna sem s hefur fundið.
+    long solutions()
+    {
+        return solutions;
+    }
+
+    // Notkun: save();
+    // Fyrir:  s er í hnút leitartrésins og hefur ekki leitað í honum,
+    //         saveTo er ekki null.
+    // Eftir:  Ef kominn er tími á vistun hefur staðan verið vistuð í
+    //         saveTo.  tick er CHECK_NODES.
+    private void save()
+    {
+        tick = CHECK_NODES;
+        long now = System.nanoTime();
+        if( now-nextSave < 0 ) return;
+        try
+        {
+            new Checkpoint(saveKey,Arrays.copyOf(path,depth),left.clone(),solutions,false).write(saveTo);
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException(e);
+        }
+        nextSave = now+saveNanos;
+    }
+
+    // Notkun: List<int[]> jobs = s.split(levels);
+    // Fyrir:  s er ekki í gangi og enginn fimmferningur er kominn á
+    //         borðið, levels >= 0.
+    // Eftir:  jobs eru leiðirnar að öllum hnútum leitartrésins á dýpt
+    //         levels, ásamt grynnri hnútum sem eru lausnir, í leitarröð.
+    //         Hver leið er fylki af staðsetningum.  Lausnirnar í
+    //         undirtrjám þessara hnúta, í þessari röð, eru allar lausnir
+    //         s í sömu röð og s finnur þær.  Staða s er óbreytt.
+    List<int[]> split( int levels )
+    {
+        List<int[]> res = new ArrayList<int[]>();
+        if( !(prune && deadBoard()) ) split(levels,res);
+        return res;
+    }
+
+    private void split( int levels, List<int[]> res )
+    {
+        int[] ps = levels == 0 ? null : viable();
+        if( ps == null )
+        {
+            res.add(Arrays.copyOf(path,depth));
+            return;
+        }
+        for( int p: ps )
+        {
+            place(p);
+            split(levels-1,res);
+            unplace();
+        }
+    }
+
+    // Notkun: s.prefix(ps);
+    // Fyrir:  s er ekki í gangi og enginn fimmferningur er kominn á
+    //         borðið.  ps er leið sem split skilaði fyrir leit með sömu
+    //         þraut og sömu stillingum.
+    // Eftir:  Staðsetningarnar í ps hafa verið settar á borðið, svo
+    //         þegar s er keyrð leitar hún aðeins í undirtré hnútsins sem
+    //         ps lýsir.  Ef ps er ekki leið í leitartré s er Error kastað.
+    void prefix( int[] ps )
+    {
+        if( ps.length != 0 && prune && deadBoard() ) throw new Error();
+        for( int p: ps )
+        {
+            int[] v = viable();
+            int i = 0;
+            while( v != null && i != v.length && v[i] != p ) i++;
+            if( v == null || i == v.length ) throw new Error();
+            place(p);
+        }
+    }
+
+    // Notkun: int n = s.pieces();
+    // Fyrir:  Ekkert.
+    // Eftir:  n er fjöldi fimmferninga sem enn má setja á borðið.
+    private int pieces()
+    {
+        int n = 0;
+        for( int k: left ) n += k;
+        return n;
+    }
+
+    // Notkun: int n = s.empty();
+    // Fyrir:  Ekkert.
+    // Eftir:  n er fjöldi auðra reita á borðinu.
+    private int empty()
+    {
+        int n = 0;
+        for( int w=0 ; w!=occ.length ; w++ ) n += Long.bitCount(~occ[w]);
+        return n;
+    }
+
+    // Notkun: s.fewestOptions();
+    // Fyrir:  s hefur ekki verið keyrð og enginn fimmferningur er
+    //         kominn á borðið.
+    // Eftir:  Þegar s er keyrð fyllir hún alltaf í þann auða reit sem
+    //         fæstar staðsetningar ónotaðra fimmferninga passa í, í stað
+    //         fyrsta auða reitsins.  Lausnirnar eru þær sömu en koma í
+    //         annarri röð.
+    void fewestOptions()
+    {
+        int n = bb.size + (empty() == 5*pieces() ? bb.a.length : 0);
+        killed = new int[bb.placements()];
+        options = new int[n];
+        for( int c=0 ; c!=bb.size ; c++ ) options[c] = bb.coverFirst[c+1]-bb.coverFirst[c];
+        for( int c=bb.size ; c!=n ; c++ ) options[c] = bb.pieceFirst[c-bb.size+1]-bb.pieceFirst[c-bb.size];
+        for( int i=0 ; i!=bb.a.length ; i++ )
+            if( left[i] == 0 )
+                for( int k=bb.pieceFirst[i] ; k!=bb.pieceFirst[i+1] ; k++ ) kill(bb.byPiece[k]);
+    }
+
+    // Notkun: s.distinct(sym,expand);
+    // Fyrir:  s hefur ekki verið keyrð, sym er samhverfugrúpa borðsins.
+    // Eftir:  Þegar s er keyrð sendir hún aðeins eina lausn úr hverjum
+    //         flokki lausna sem eru snúningar eða speglanir hver af
+    //         annarri, eða, ef expand er satt, allar lausnirnar í þeim
+    //         flokki í einu.  Ef þrautin notar alla fimmferningana og
+    //         aðeins eitt eintak af X þá er X settur fyrstur á borðið
+    //         og aðeins á staði sem ekki má færa á reit með lægra
+    //         númer með vörpun í sym, sem minnkar leitartréð um allt
+    //         að stærð grúpunnar.
+    void distinct( Symmetry sym, boolean expand )
+    {
+        this.sym = sym;
+        this.expand = expand;
+        if( sym.group.length == 1 ) return;
+        if( empty() != 5*pieces() ) return;
+        for( int i=0 ; i!=bb.a.length ; i++ )
+            if( bb.a[i][0].getName() == 'X' && left[i] == 1 ) xPiece = i;
+        if( xPiece < 0 ) return;
+        int[] xs = new int[bb.size];
+        int n = 0;
+        for( int p=0 ; p!=bb.placements() ; p++ )
+        {
+            if( bb.placePiece[p] != xPiece ) continue;
+            int c = bb.placeCell[p];
+            boolean least = true;
+            for( int g: sym.group ) least = least && mapAnchor(g,c) >= c;
+            if( least ) xs[n++] = p;
+        }
+        xPlacements = Arrays.copyOf(xs,n);
+    }
+
+    // Notkun: int c2 = s.mapAnchor(g,c);
+    // Fyrir:  X passar innan borðsins með fyrsta punkt í reit c, g er
+    //         vörpun í sym.
+    // Eftir:  c2 er fyrsti reitur myndar X undir vörpun g.
+    private int mapAnchor( int g, int c )
+    {
+        Pento p = bb.a[xPiece][0];
+        int x = bb.row(c), y = bb.col(c);
+        int res = Integer.MAX_VALUE;
+        for( int k=0 ; k!=5 ; k++ )
+            res = Math.min(res,sym.map(g,(y+p.getY(k))*bb.rows+x+p.getX(k)));
+        return res;
+    }
+
+    // Notkun: s.emit();
+    // Fyrir:  Allir reitir borðsins eru fullir.
+    // Eftir:  Búið er að telja lausnina og senda hana í sink, nema hún
+    //         sé ekki sú fyrsta í flokki sínum þegar sym er ekki null.
+    //         Ef sym er null og sink er null býr emit ekki til neina hluti.
+    private void emit()
+        throws InterruptedException
+    {
+        if( sym == null )
+        {
+            solutions++;
+            if( SearchStats.ON ) stats.solutions++;
+            if( records != null ) records.put(path,depth);
+            if( sink != null && !partial ) sink.put(render());
+            return;
+        }
+        String[] b = render();
+        if( !sym.isCanonical(b,stabilizer()) ) return;
+        String[][] all = expand ? sym.orbit(b) : new String[][]{ b };
+        solutions += all.length;
+        if( SearchStats.ON ) stats.solutions += all.length;
+        if( sink != null && !partial )
+            for( String[] b2: all ) sink.put(b2);
+    }
+
+    // Notkun: int[] gs = s.stabilizer();
+    // Fyrir:  sym er ekki null og allir reitir borðsins eru fullir.
+    // Eftir:  gs eru þær varpanir í sym sem lausn gæti verið mynd af
+    //         sjálfri sér undir, þ.e. allar varpanirnar nema búið sé
+    //         að festa X, og þá aðeins þær sem varpa X á sjálfan sig.
+    private int[] stabilizer()
+    {
+        if( xPiece < 0 ) return sym.group;
+        int c = -1;
+        for( int d=0 ; d!=depth ; d++ )
+            if( bb.placePiece[path[d]] == xPiece ) c = bb.placeCell[path[d]];
+        int[] res = new int[sym.group.length];
+        int n = 0;
+        for( int g: sym.group )
+            if( mapAnchor(g,c) == c ) res[n++] = g;
+        return Arrays.copyOf(res,n);
+    }
+
+    // Notkun: long n = s.count(limit);
+    // Fyrir:  s hefur ekki verið keyrð áður, limit >= 0.
+    // Eftir:  n er fjöldi lausna á þrautinni, eða limit ef þær eru
+    //         limit eða fleiri.  Ef sink er null þá býr talningin ekki
+    //         til neina nýja hluti.
+    long count( long limit )
+    {
+        this.limit = limit;
+        if( limit == 0 ) return 0;
+        try
+        {
+            run();
+        }
+        catch( InterruptedException e )
+        {
+            throw new Error(e);
+        }
+        return solutions;
+    }
+
+    // Notkun: s.run();
+    // Fyrir:  s er ekki í gangi.
+    // Eftir:  Búið er að senda í sink allar lausnir sem framlengja
+    //         þá stöðu sem s er í.
+    void run()
+        throws InterruptedException
+    {
+        if( !SearchStats.ON )
+        {
+            start();
+            return;
+        }
+        stats.begin();
+        try
+        {
+            start();
+        }
+        finally
+        {
+            stats.end();
+        }
+    }
+
+    // Notkun: s.start();
+    // Fyrir:  s er ekki í gangi.
+    // Eftir:  Sama og eftir s.run(), en án þess að mæla leitina.
+    private void start()
+        throws InterruptedException
+    {
+        if( resumeFrom != null )
+            resume(depth);
+        else if( progress == null )
+            explore();
+        else
+            walk(PROGRESS_LEVELS,1.0);
+    }
+
+    // Notkun: s.walk(levels,weight);
+    // Fyrir:  s er ekki í gangi, progress er ekki null, levels >= 0 og
+    //         weight er hlutfall núverandi stöðu af öllu leitartrénu.
+    // Eftir:  Búið er að senda í sink allar lausnir sem framlengja
+    //         stöðuna og bæta weight við progress.  Fyrstu levels þrepin
+    //         eru farin hér og hlutfalli hverrar greinar þar bætt við
+    //         progress þegar henni lýkur.
+    private void walk( int levels, double weight )
+        throws InterruptedException
+    {
+        if( levels == 0 || (prune && depth == 0 && deadBoard()) )
+        {
+            if( levels == 0 ) explore();
+            progress.add(weight);
+            return;
+        }
+        Pento.checkInterrupt();
+        if( SearchStats.ON ) stats.node(depth);
+        int[] ps = viable();
+        if( ps == null )
+        {
+            emit();
+            progress.add(weight);
+            return;
+        }
+        if( ps.length == 0 )
+        {
+            if( SearchStats.ON ) stats.backtracks++;
+            progress.add(weight);
+            return;
+        }
+        for( int p: ps )
+        {
+            if( SearchStats.ON ) stats.placed++;
+            place(p);
+            if( partial ) sink.put(render());
+            walk(levels-1,weight/ps.length);
+            unplace();
+            if( solutions >= limit ) return;
+        }
+    }
+
+    // Notkun: s.resume(d);
+    // Fyrir:  s er ekki í gangi, resumeFrom er ekki null, búið er að
+    //         setja staðsetningarnar resumeFrom.path[0..d-1] á borðið.
+    // Eftir:  Búið er að senda í sink allar lausnir sem framlengja
+    //         stöðuna og koma í leitarröð á eftir hnútnum resumeFrom.path
+    //         eða í honum.  Staðan er óbreytt.
+    private void resume( int d )
+        throws InterruptedException
+    {
+        int[] target = resumeFrom.path;
+        if( target.length < d || !Arrays.equals(Arrays.copyOf(target,d),Arrays.copyOf(path,d)) ) throw new Error();
+        if( d == target.length )
+        {
+            if( !Arrays.equals(left,resumeFrom.left) ) throw new Error();
+            explore();
+            return;
+        }
+        int[] ps = viable();
+        int i = 0;
+        while( ps != null && i != ps.length && ps[i] != target[d] ) i++;
+        if( ps == null || i == ps.length ) throw new Error();
+        for( ; i!=ps.length ; i++ )
+        {
+            place(ps[i]);
+            if( ps[i] == target[d] )
+                resume(d+1);
+            else
+                explore();
+            unplace();
+            if( solutions >= limit ) return;
+        }
+    }
+
+    // Notkun: int[] ps = s.viable();
+    // Fyrir:  s er ekki í gangi.
+    // Eftir:  ps er null ef allir reitir eru fullir, annars eru ps þær
+    //         staðsetningar í s.candidates() sem leitin fer í, þ.e. þær
+    //         sem ekki skilja eftir dauð svæði ef þau eru klippt burt.
+    private int[] viable()
+    {
+        int[] ps = candidates();
+        if( ps == null || !prune ) return ps;
+        int n = 0;
+        for( int p: ps )
+            if( !deadAfter(p) ) ps[n++] = p;
+        return Arrays.copyOf(ps,n);
+    }
+
+    // Notkun: double[] est = s.probe(r);
+    // Fyrir:  s er ekki í gangi, r er slembitalnagjafi.
+    // Eftir:  Búið er að fara eina slembna leið frá núverandi stöðu niður
+    //         í lauf leitartrésins og staðan er óbreytt.  est[0] er mat á
+    //         fjölda hnúta trésins og est[1] mat á fjölda lausna, þ.e.
+    //         1+d1+d1*d2+..., þar sem di er fjöldi greina í i-ta hnút
+    //         leiðarinnar, og d1*d2*... ef laufið er lausn en 0 annars.
+    //         Meðaltal margra slíkra mata er óbjagað mat á stærðunum.
+    //         Lausnir sem emit myndi sleppa, t.d. vegna samhverfu, eru
+    //         taldar með.
+    double[] probe( Random r )
+    {
+        double[] res = new double[2];
+        if( prune && depth == 0 && deadBoard() ) return res;
+        int base = depth;
+        double w = 1;
+        res[0] = 1;
+        for(;;)
+        {
+            int[] ps = viable();
+            if( ps == null )
+            {
+                res[1] = w;
+                break;
+            }
+            if( ps.length == 0 ) break;
+            w *= ps.length;
+            res[0] += w;
+            place(ps[r.nextInt(ps.length)]);
+        }
+        while( depth != base ) unplace();
+        return res;
+    }
+
+    // Notkun: long n = s.nodes();
+    // Fyrir:  s er ekki í gangi.
+    // Eftir:  n er fjöldi hnúta í leitartrénu undir núverandi stöðu,
+    //         með henni sjálfri, talinn með því að fara yfir allt tréð.
+    //         Þetta er stærðin sem probe metur.  Staðan er óbreytt.
+    long nodes()
+    {
+        if( prune && depth == 0 && deadBoard() ) return 0;
+        return subtree();
+    }
+
+    private long subtree()
+    {
+        int[] ps = viable();
+        long n = 1;
+        if( ps == null ) return n;
+        for( int p: ps )
+        {
+            place(p);
+            n += subtree();
+            unplace();
+        }
+        return n;
+    }
+
+    // Notkun: s.explore();
+    // Fyrir:  s er ekki í gangi.
+    // Eftir:  Sama og eftir s.run(), en án þess að mæla leitina.
+    private void explore()
+        throws InterruptedException
+    {
+        if( prune && depth == 0 && deadBoard() ) return;
+        if( xPlacements != null && left[xPiece] != 0 )
+        {
+            if( SearchStats.ON ) stats.node(depth);
+            for( int p: xPlacements )
+            {
+                if( SearchStats.ON ) stats.tried++;
+                if( !fits(p) ) continue;
+                if( SearchStats.ON ) stats.placed++;
+                place(p);
+                if( partial ) sink.put(render());
+                explore();
+                unplace();
+                if( solutions >= limit ) return;
+            }
+            return;
+        }
+        if( killed != null )
+            searchFewest();
+        else if( bb.mask != null )
+            searchSmall(occ[0]);
+        else
+            searchWide(0);
+    }
+
+    // Notkun: s.runParallel(threads,levels);
+    // Fyrir:  s hefur ekki verið keyrð áður, threads >= 1, levels >= 0.
+    // Eftir:  Búið er að senda allar lausnir í sink.  Leitartréð er
+    //         klofið í sjálfstæð verk niður á dýpt levels og þau keyrð
+    //         samhliða í threads þráðum með verkstuldi (work stealing).
+    //         Lausnirnar koma ekki í neinni ákveðinni röð og sink
+    //         þarf að geta tekið við þeim úr mörgum þráðum í einu.
+    //         Ef beðið er um að þráðurinn sem kallar hætti þá eru
+    //         allir leitarþræðirnir stöðvaðir.  Öll verkin saman teljast
+    //         ein leit í SearchStats.
+    void runParallel( int threads, int levels )
+        throws InterruptedException
+    {
+        if( SearchStats.ON ) stats.begin();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try
+        {
+            pool.submit(new Task(this,levels,1.0,progress,stats)).get();
+        }
+        catch( ExecutionException e )
+        {
+            Throwable c = e.getCause();
+            if( c != null && c.getCause() instanceof InterruptedException )
+                throw (InterruptedException)c.getCause();
+            if( c instanceof RuntimeException ) throw (RuntimeException)c;
+            if( c instanceof Error ) throw (Error)c;
+            throw new RuntimeException(c);
+        }
+        finally
+        {
+            pool.shutdownNow();
+            if( SearchStats.ON ) stats.end();
+        }
+    }
+
+    // Tilvik af Task er verk sem leitar í einu undirtré leitartrésins.
+    // Ef levels > 0 þá skiptir verkið sér í eitt undirverk fyrir hvern
+    // fimmferning sem setja má í reitinn sem leitin fyllir næst, annars
+    // leitar það í undirtrénu í sínum þræði.  Undirtréð er hlutfallið
+    // weight af öllu trénu og því er bætt við progress, ef það er ekki
+    // null, þegar leit í því lýkur.  Verkið leitar án þess að mæla
+    // leitina og bætir tölum sínum við total, teljara leitarinnar sem
+    // runParallel mælir, ef SearchStats.ON er satt.
+    private static class Task extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final BitSearch s;
+        private final int levels;
+        private final double weight;
+        private final DoubleAdder progress;
+        private final SearchStats.Counters total;
+
+        Task( BitSearch s, int levels, double weight, DoubleAdder progress, SearchStats.Counters total )
+        {
+            this.s = s;
+            this.levels = levels;
+            this.weight = weight;
+            this.progress = progress;
+            this.total = total;
+        }
+
+        protected void compute()
+        {
+            try
+            {
+                if( levels == 0 )
+                {
+                    s.start();
+                    done(true);
+                    return;
+                }
+                if( SearchStats.ON ) s.stats.node(s.depth);
+                int[] ps = s.candidates();
+                if( ps == null || ps.length == 0 )
+                {
+                    if( ps == null )
+                        s.emit();
+                    else if( SearchStats.ON )
+                        s.stats.backtracks++;
+                    done(true);
+                    return;
+                }
+                List<Task> tasks = new ArrayList<Task>();
+                for( int p: ps )
+                {
+                    if( SearchStats.ON ) s.stats.placed++;
+                    BitSearch t = new BitSearch(s);
+                    t.place(p);
+                    if( s.partial ) s.sink.put(t.render());
+                    tasks.add(new Task(t,levels-1,weight/ps.length,progress,total));
+                }
+                done(false);
+                invokeAll(tasks);
+            }
+            catch( InterruptedException e )
+            {
+                throw new RuntimeException(e);
+            }
+        }
+
+        // Notkun: done(last);
+        // Fyrir:  Leit s í þessu verki er lokið, að undirverkum
+        //         slepptum.
+        // Eftir:  Tölum s hefur verið bætt við total, og weight við
+        //         progress ef last er satt og progress er ekki null.
+        private void done( boolean last )
+        {
+            if( SearchStats.ON && s.stats != total ) total.add(s.stats);
+            if( last && progress != null ) progress.add(weight);
+        }
+    }
+
+    // Notkun: int[] ps = s.candidates();
+    // Fyrir:  s er ekki í gangi.
+    // Eftir:  ps er null ef allir reitir eru fullir, annars eru ps
+    //         þær staðsetningar sem s reynir næst, í sömu röð og s
+    //         reynir þær, þ.e. X ef hann á að fara fyrstur og annars
+    //         allar staðsetningar í reitinn sem s fyllir næst.
+    private int[] candidates()
+    {
+        int[] res = new int[bb.placements()];
+        int n = 0;
+        if( xPlacements != null && left[xPiece] != 0 )
+        {
+            for( int p: xPlacements )
+                if( fits(p) ) res[n++] = p;
+            return Arrays.copyOf(res,n);
+        }
+        if( killed != null )
+        {
+            int c = fewest();
+            if( c == -1 ) return null;
+            if( c < 0 ) return new int[0];
+            int[] list = c < bb.size ? bb.cover : bb.byPiece;
+            int[] bounds = c < bb.size ? bb.coverFirst : bb.pieceFirst;
+            if( c >= bb.size ) c -= bb.size;
+            for( int i=bounds[c] ; i!=bounds[c+1] ; i++ )
+                if( killed[list[i]] == 0 ) res[n++] = list[i];
+            return Arrays.copyOf(res,n);
+        }
+        int c = firstEmpty();
+        if( c < 0 ) return null;
+        for( int p=bb.first[c] ; p!=bb.first[c+1] ; p++ )
+            if( left[bb.placePiece[p]] != 0 && fits(p) ) res[n++] = p;
+        return Arrays.copyOf(res,n);
+    }
+
+    // Notkun: int c = s.firstEmpty();
+    // Fyrir:  s er ekki í gangi.
+    // Eftir:  c er fyrsti auði reiturinn á borðinu, eða -1 ef enginn
+    //         reitur er auður.
+    private int firstEmpty()
+    {
+        for( int w=0 ; w!=occ.length ; w++ )
+            if( occ[w] != -1L ) return (w<<6)+Long.numberOfTrailingZeros(~occ[w]);
+        return -1;
+    }
+
+    // Notkun: int c = s.fewest();
+    // Fyrir:  killed er ekki null, occ er mengi upptekinna reita.
+    // Eftir:  c er -1 ef enginn reitur er auður, -2 ef einhver auður
+    //         reitur er þannig að engin staðsetning passar í hann, og
+    //         annars sá auði reitur sem fæstar staðsetningar passa í,
+    //         sá fyrsti ef fleiri en einn koma til greina.  Ef options
+    //         nær yfir fimmferningana og eitt eintak er eftir af
+    //         fimmferningi i sem hefur færri staðsetningar en sá reitur,
+    //         þá er c = bb.size+i fyrir þann fimmferning i sem fæstar
+    //         hefur, og -2 ef hann hefur engar.
+    private int fewest()
+    {
+        int best = -1, min = Integer.MAX_VALUE;
+        for( int w=0 ; w!=bb.words ; w++ )
+        {
+            long f = ~occ[w];
+            while( f != 0 )
+            {
+                int c = (w<<6)+Long.numberOfTrailingZeros(f);
+                f &= f-1;
+                int n = options[c];
+                if( n >= min ) continue;
+                if( n == 0 ) return -2;
+                min = n;
+                best = c;
+            }
+        }
+        for( int c=bb.size ; c!=options.length ; c++ )
+        {
+            int n = options[c];
+            if( n >= min || left[c-bb.size] != 1 ) continue;
+            if( n == 0 ) return -2;
+            min = n;
+            best = c;
+        }
+        return best;
+    }
+
+    // Notkun: boolean ok = s.fits(p);
+    // Fyrir:  s er ekki í gangi, p er staðsetning á bb.
+    // Eftir:  ok er satt þá og því aðeins að allir reitir p séu auðir.
+    private boolean fits( int p )
+    {
+        if( bb.mask != null ) return (occ[0] & bb.mask[p]) == 0;
+        return fits(bb.placeCell[p]>>>6,p);
+    }
+
+    // Notkun: s.place(p);
+    // Fyrir:  s er ekki í gangi og s.fits(p).
+    // Eftir:  Búið er að setja fimmferning á borðið í staðsetningu p.
+    private void place( int p )
+    {
+        if( bb.mask != null )
+            occ[0] |= bb.mask[p];
+        else
+            flip(bb.placeCell[p]>>>6,p);
+        push(p);
+        if( killed != null ) cover(p);
+    }
+
+    // Notkun: s.unplace();
+    // Fyrir:  s er ekki í gangi og einhver fimmferningur er á borðinu.
+    // Eftir:  Búið er að taka síðasta fimmferninginn sem settur var á
+    //         borðið með place af því aftur.
+    private void unplace()
+    {
+        pop();
+        int p = path[depth];
+        if( killed != null ) uncover(p);
+        if( bb.mask != null )
+            occ[0] ^= bb.mask[p];
+        else
+            flip(bb.placeCell[p]>>>6,p);
+    }
+
+    // Notkun: searchSmall(o);
+    // Fyrir:  bb.size <= 64, o er mengi upptekinna reita.
+    // Eftir:  Búið er að senda allar lausnir sem framlengja núverandi
+    //         stöðu í sink.  Staðan er óbreytt.
+    private void searchSmall( long o )
+        throws InterruptedException
+    {
+        Pento.checkInterrupt();
+        if( saveTo != null && --tick == 0 ) save();
+        if( SearchStats.ON ) stats.node(depth);
+        if( o == -1L )
+        {
+            emit();
+            return;
+        }
+        int c = Long.numberOfTrailingZeros(~o);
+        int[] placePiece = bb.placePiece;
+        long[] mask = bb.mask;
+        long placed = 0;
+        if( SearchStats.ON )
+        {
+            placed = stats.placed;
+            stats.tried += bb.first[c+1]-bb.first[c];
+        }
+        for( int p=bb.first[c], end=bb.first[c+1] ; p!=end ; p++ )
+        {
+            long m = mask[p];
+            if( left[placePiece[p]] == 0 || (o & m) != 0 ) continue;
+            if( prune && dead(o|m,m) ) continue;
+            if( SearchStats.ON ) stats.placed++;
+            push(p);
+            if( partial ) sink.put(render());
+            searchSmall(o|m);
+            pop();
+            if( solutions >= limit ) return;
+        }
+        if( SearchStats.ON && stats.placed == placed ) stats.backtracks++;
+    }
+
+    // Notkun: searchWide(w);
+    // Fyrir:  bb.size > 64, öll orð í occ á undan orði w eru full.
+    // Eftir:  Búið er að senda allar lausnir sem framlengja núverandi
+    //         stöðu í sink.  Staðan er óbreytt.
+    private void searchWide( int w )
+        throws InterruptedException
+    {
+        Pento.checkInterrupt();
+        if( saveTo != null && --tick == 0 ) save();
+        if( SearchStats.ON ) stats.node(depth);
+        while( w != bb.words && occ[w] == -1L ) w++;
+        if( w == bb.words )
+        {
+            emit();
+            return;
+        }
+        int c = (w<<6)+Long.numberOfTrailingZeros(~occ[w]);
+        int[] placePiece = bb.placePiece;
+        long placed = 0;
+        if( SearchStats.ON )
+        {
+            placed = stats.placed;
+            stats.tried += bb.first[c+1]-bb.first[c];
+        }
+        for( int p=bb.first[c], end=bb.first[c+1] ; p!=end ; p++ )
+        {
+            if( left[placePiece[p]] == 0 || !fits(w,p) ) continue;
+            flip(w,p);
+            if( prune && deadWide(w,p) )
+            {
+                flip(w,p);
+                continue;
+            }
+            if( SearchStats.ON ) stats.placed++;
+            push(p);
+            if( partial ) sink.put(render());
+            searchWide(w);
+            pop();
+            flip(w,p);
+            if( solutions >= limit ) return;
+        }
+        if( SearchStats.ON && stats.placed == placed ) stats.backtracks++;
+    }
+
+    // Notkun: searchFewest();
+    // Fyrir:  killed er ekki null.
+    // Eftir:  Búið er að senda allar lausnir sem framlengja núverandi
+    //         stöðu í sink.  Staðan er óbreytt.
+    private void searchFewest()
+        throws InterruptedException
+    {
+        Pento.checkInterrupt();
+        if( saveTo != null && --tick == 0 ) save();
+        if( SearchStats.ON ) stats.node(depth);
+        int c = fewest();
+        if( c == -1 )
+        {
+            emit();
+            return;
+        }
+        long placed = SearchStats.ON ? stats.placed : 0;
+        if( c >= 0 )
+        {
+            int[] list = c < bb.size ? bb.cover : bb.byPiece;
+            int[] bounds = c < bb.size ? bb.coverFirst : bb.pieceFirst;
+            if( c >= bb.size ) c -= bb.size;
+            if( SearchStats.ON ) stats.tried += bounds[c+1]-bounds[c];
+            for( int i=bounds[c], end=bounds[c+1] ; i!=end ; i++ )
+            {
+                int p = list[i];
+                if( killed[p] != 0 ) continue;
+                if( prune && deadAfter(p) ) continue;
+                if( SearchStats.ON ) stats.placed++;
+                place(p);
+                if( partial ) sink.put(render());
+                searchFewest();
+                unplace();
+                if( solutions >= limit ) return;
+            }
+        }
+        if( SearchStats.ON && stats.placed == placed ) stats.backtracks++;
+    }
+
+    // Notkun: boolean d = s.deadAfter(p);
+    // Fyrir:  s er ekki í gangi og s.fits(p).
+    // Eftir:  d er satt þá og því aðeins að eitthvert samhangandi svæði
+    //         auðra reita sem liggur að p hefði stærð sem ekki er
+    //         margfeldi af 5 ef p væri sett á borðið.
+    private boolean deadAfter( int p )
+    {
+        if( bb.mask != null ) return dead(occ[0]|bb.mask[p],bb.mask[p]);
+        int w = bb.placeCell[p]>>>6;
+        flip(w,p);
+        boolean d = deadWide(w,p);
+        flip(w,p);
+        return d;
+    }
+
+    // Notkun: cover(p);
+    // Fyrir:  killed er ekki null, búið er að setja staðsetningu p á
+    //         borðið.
+    // Eftir:  killed og options hafa verið uppfærð miðað við það.
+    private void cover( int p )
+    {
+        int[] cover = bb.cover, coverFirst = bb.coverFirst;
+        for( int k=5*p ; k!=5*p+5 ; k++ )
+        {
+            int c = bb.cells[k];
+            for( int i=coverFirst[c], end=coverFirst[c+1] ; i!=end ; i++ ) kill(cover[i]);
+        }
+        int piece = bb.placePiece[p];
+        if( left[piece] != 0 ) return;
+        for( int i=bb.pieceFirst[piece], end=bb.pieceFirst[piece+1] ; i!=end ; i++ ) kill(bb.byPiece[i]);
+    }
+
+    // Notkun: uncover(p);
+    // Fyrir:  killed er ekki null, búið er að taka staðsetningu p, sem
+    //         síðast var sett á borðið, af því aftur.
+    // Eftir:  killed og options eru eins og áður en p var sett.  left
+    //         hefur þegar verið hækkað aftur.
+    private void uncover( int p )
+    {
+        int piece = bb.placePiece[p];
+        if( left[piece] == 1 )
+            for( int i=bb.pieceFirst[piece], end=bb.pieceFirst[piece+1] ; i!=end ; i++ ) revive(bb.byPiece[i]);
+        int[] cover = bb.cover, coverFirst = bb.coverFirst;
+        for( int k=5*p ; k!=5*p+5 ; k++ )
+        {
+            int c = bb.cells[k];
+            for( int i=coverFirst[c], end=coverFirst[c+1] ; i!=end ; i++ ) revive(cover[i]);
+        }
+    }
+
+    private void kill( int q )
+    {
+        if( killed[q]++ != 0 ) return;
+        for( int k=5*q ; k!=5*q+5 ; k++ ) options[bb.cells[k]]--;
+        if( options.length != bb.size ) options[bb.size+bb.placePiece[q]]--;
+    }
+
+    private void revive( int q )
+    {
+        if( --killed[q] != 0 ) return;
+        for( int k=5*q ; k!=5*q+5 ; k++ ) options[bb.cells[k]]++;
+        if( options.length != bb.size ) options[bb.size+bb.placePiece[q]]++;
+    }
+
+    // Notkun: boolean ok = fits(w,p);
+    // Fyrir:  bb.size > 64, p er staðsetning með fyrsta punkt í orði w.
+    // Eftir:  ok er satt þá og því aðeins að enginn reitur í p
+    //         sé upptekinn.
+    private boolean fits( int w, int p )
+    {
+        long[] wide = bb.wide;
+        for( int k=0, base=p*bb.stride ; k!=bb.stride ; k++ )
+            if( (occ[w+k] & wide[base+k]) != 0 ) return false;
+        return true;
+    }
+
+    // Notkun: flip(w,p);
+    // Fyrir:  bb.size > 64, p er staðsetning með fyrsta punkt í orði w.
+    // Eftir:  Búið er að víxla reitunum í p í occ milli þess að vera
+    //         auðir og uppteknir.
+    private void flip( int w, int p )
+    {
+        long[] wide = bb.wide;
+        for( int k=0, base=p*bb.stride ; k!=bb.stride ; k++ ) occ[w+k] ^= wide[base+k];
+    }
+
+    // Notkun: boolean d = dead(o,m);
+    // Fyrir:  bb.size <= 64, o er mengi upptekinna reita eftir að
+    //         fimmferningur með reitamengi m var settur á borðið.
+    // Eftir:  d er satt þá og því aðeins að eitthvert samhangandi svæði
+    //         auðra reita sem liggur að m hafi stærð sem ekki er
+    //         margfeldi af 5.
+    private boolean dead( long o, long m )
+    {
+        long f = ~o;
+        long todo = grow(m) & f;
+        while( todo != 0 )
+        {
+            long r = todo & -todo;
+            for(;;)
+            {
+                long n = grow(r) & f;
+                if( n == r ) break;
+                r = n;
+            }
+            if( Long.bitCount(r)%5 != 0 ) return true;
+            todo &= ~r;
+        }
+        return false;
+    }
+
+    // Notkun: long n = grow(m);
+    // Fyrir:  bb.size <= 64, m er mengi reita.
+    // Eftir:  n er mengi reitanna í m ásamt nágrönnum þeirra á borðinu.
+    private long grow( long m )
+    {
+        long n = m | (m & bb.notBottom[0])<<1 | (m & bb.notTop[0])>>>1;
+        if( bb.cols > 1 ) n |= m<<bb.rows | m>>>bb.rows;
+        return n;
+    }
+
+    // Notkun: boolean d = deadWide(w,p);
+    // Fyrir:  bb.size > 64, búið er að setja staðsetningu p, sem hefur
+    //         fyrsta punkt í orði w, á borðið.
+    // Eftir:  d er satt þá og því aðeins að eitthvert samhangandi svæði
+    //         auðra reita sem liggur að p hafi stærð sem ekki er
+    //         margfeldi af 5.
+    private boolean deadWide( int w, int p )
+    {
+        for( int k=0 ; k!=bb.words ; k++ )
+        {
+            free[k] = ~occ[k];
+            region[k] = 0;
+        }
+        for( int k=0 ; k!=bb.stride && w+k != bb.words ; k++ ) region[w+k] = bb.wide[p*bb.stride+k];
+        growWide(region,seeds);
+        return deadRegions();
+    }
+
+    // Notkun: boolean d = deadBoard();
+    // Fyrir:  Ekkert.
+    // Eftir:  d er satt þá og því aðeins að eitthvert samhangandi svæði
+    //         auðra reita á borðinu hafi stærð sem ekki er margfeldi af 5.
+    private boolean deadBoard()
+    {
+        for( int k=0 ; k!=bb.words ; k++ )
+        {
+            free[k] = ~occ[k];
+            seeds[k] = free[k];
+        }
+        return deadRegions();
+    }
+
+    // Notkun: boolean d = deadRegions();
+    // Fyrir:  free er mengi auðra reita, seeds er mengi reita.
+    // Eftir:  d er satt þá og því aðeins að eitthvert samhangandi svæði
+    //         í free sem sker seeds hafi stærð sem ekki er margfeldi
+    //         af 5.  seeds, region og grown hafa verið notuð sem
+    //         vinnusvæði.
+    private boolean deadRegions()
+    {
+        for( int k=0 ; k!=bb.words ; k++ ) seeds[k] &= free[k];
+        for( int w=0 ; w!=bb.words ; w++ )
+        {
+            while( seeds[w] != 0 )
+            {
+                for( int k=0 ; k!=bb.words ; k++ ) region[k] = 0;
+                region[w] = seeds[w] & -seeds[w];
+                boolean changed = true;
+                while( changed )
+                {
+                    growWide(region,grown);
+                    changed = false;
+                    for( int k=0 ; k!=bb.words ; k++ )
+                    {
+                        long n = grown[k] & free[k];
+                        if( n != region[k] ) changed = true;
+                        region[k] = n;
+                    }
+                }
+                int size = 0;
+                for( int k=0 ; k!=bb.words ; k++ )
+                {
+                    size += Long.bitCount(region[k]);
+                    seeds[k] &= ~region[k];
+                }
+                if( size%5 != 0 ) return true;
+            }
+        }
+        return false;
+    }
+
+    // Notkun: growWide(m,n);
+    // Fyrir:  m og n eru mengi reita með bb.words orðum, ekki sama fylkið.
+    // Eftir:  n er mengi reitanna í m ásamt nágrönnum þeirra á borðinu.
+    //         Bitar handan við síðasta reit borðsins geta verið settir.
+    private void growWide( long[] m, long[] n )
+    {
+        int rows = bb.rows, q = rows>>>6, b = rows&63;
+        for( int k=0 ; k!=bb.words ; k++ )
+        {
+            long r = m[k];
+            r |= (m[k] & bb.notBottom[k])<<1;
+            if( k != 0 ) r |= (m[k-1] & bb.notBottom[k-1])>>>63;
+            r |= (m[k] & bb.notTop[k])>>>1;
+            if( k+1 != bb.words ) r |= (m[k+1] & bb.notTop[k+1])<<63;
+            r |= shifted(m,k-q,b) | shifted(m,k+q,-b);
+            n[k] = r;
+        }
+    }
+
+    // Notkun: long r = shifted(m,k,b);
+    // Fyrir:  m er mengi reita, -64 < b < 64.
+    // Eftir:  r er orð k í m hliðrað upp um b bita ef b > 0, eða niður
+    //         um -b bita ef b < 0, ásamt þeim bitum sem færast inn í
+    //         það úr orðinu fyrir neðan, eða ofan.  Orð utan m teljast 0.
+    private static long shifted( long[] m, int k, int b )
+    {
+        long lo = k >= 0 && k < m.length ? m[k] : 0;
+        if( b == 0 ) return lo;
+        if( b > 0 )
+        {
+            long below = k-1 >= 0 && k-1 < m.length ? m[k-1] : 0;
+            return lo<<b | below>>>(64-b);
+        }
+        long above = k+1 >= 0 && k+1 < m.length ? m[k+1] : 0;
+        return lo>>>(-b) | above<<(64+b);
+    }
+
+    private void push( int p )
+    {
+        path[depth++] = p;
+        left[bb.placePiece[p]]--;
+    }
+
+    private void pop()
+    {
+        depth--;
+        left[bb.placePiece[path[depth]]]++;
+    }
+
+    // Notkun: String[] b = s.render();
+    // Fyrir:  Ekkert.
+    // Eftir:  b er nýtt borð sem sýnir upphaflega borðið ásamt þeim
+    //         fimmferningum sem nú eru á borðinu.
+    private String[] render()
+    {
+        return bb.render(path,depth);
+    }
+}
@@ -0,0 +1,417 @@
+package is.ingimarsson.pentosolver;
+
+// Tilvik af BoardGenerator búa til slembin borð af tiltekinni stærð sem
+// vitað er að hafa lausn, með nákvæmlega 60 auða reiti fyrir hvert sett
+// af fimmferningum.
+//
+// Í stað þess að velja auða reiti af handahófi og athuga svo hvort
+// borðið hafi lausn er lausnin búin til fyrst: fimmferningunum er raðað
+// einum í einu á autt borð, hverjum á slembinn stað sem snertir þá sem
+// komnir eru, og reitirnir sem þeir þekja verða auðu reitirnir en allir
+// aðrir fullir.  Ef enginn fimmferningur sem eftir er kemst fyrir við
+// slembinn reit í jaðrinum er annar reitur reyndur, og ef enginn
+// jaðarreitur gengur er byrjað upp á nýtt.  Auðu reitirnir mynda því
+// samhangandi svæði og fimmferningarnir eru lausn á því, sem next
+// skilar líka.  Staðsetningarnar sem þekja reit eru reiknaðar þegar
+// þeirra er þörf, svo minnisnotkun er aðeins í hlutfalli við fjölda
+// reita jafnvel á mjög stórum borðum, og hvert borð kostar aðeins
+// nokkra tugi þúsunda einfaldra aðgerða.
+//
+// Á þröngum borðum, þar sem fáir reitir verða fullir, festist slíkur
+// vöxtur nær alltaf.  Ef GROWTH_TRIES tilraunir mistakast er því í
+// staðinn leitað með bakrakningu, reit fyrir reit dálk fyrir dálk, þar
+// sem hver reitur er annaðhvort þakinn eða gerður fullur og allt er
+// reynt í slembinni röð, í mesta lagi BUDGET hnútar í hverri tilraun.
+//
+// Notkun sem skipanalínuforrit:
+//   java -cp pentosolver.jar is.ingimarsson.pentosolver.BoardGenerator
+//        [-copies n] [-seed s] línur dálkar fjöldi mappa
+//
+// skrifar fjöldi borða, board-00000.pento, board-00001.pento, ..., í
+// möppuna, á sama sniði og App.handleOpen og Batch lesa.
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public final class BoardGenerator
+{
+    private static final int TRIES = 1000;
+    private static final int GROWTH_TRIES = 20;
+    private static final int BUDGET = 100000;
+
+    private final int rows, cols;
+    private final char[] names;
+    private final int[] first;
+    private final int[] dx, dy;
+    private final int[] stamp;
+    private final int[] frontier;
+    private final int[] left;
+    private int[] placed;
+    private int round = 0;
+    private int budget;
+    // Fastayrðing gagna.
+    //  Borðin sem búin eru til hafa rows línur og cols dálka og reitur
+    //  (x,y) hefur númerið x*cols+y.  Afbrigði fimmfernings i í
+    //  Pento.library() eru v, first[i] <= v < first[i+1], og afbrigði v
+    //  þekur reitina (x+dx[5*v+k],y+dy[5*v+k]), 0 <= k < 5, ef fyrsti
+    //  punktur þess er í (x,y).  names[i] er nafn fimmfernings i.
+    //  stamp, frontier, left og placed eru vinnusvæði fyrir next: reitur
+    //  c er upptekinn í núverandi tilraun ef stamp[c] == 2*round og
+    //  hefur verið settur í jaðarinn ef stamp[c] == 2*round-1.  Í
+    //  placed eru fimmferningarnir sem komnir eru, tvö sæti fyrir hvern:
+    //  afbrigðið og númer fyrsta reitsins.
+
+    // Notkun: BoardGenerator g = new BoardGenerator(rows,cols);
+    // Fyrir:  rows >= 1, cols >= 1.
+    // Eftir:  g býr til borð með rows línum og cols dálkum.
+    public BoardGenerator( int rows, int cols )
+    {
+        if( rows < 1 || cols < 1 ) throw new Error();
+        this.rows = rows;
+        this.cols = cols;
+        Pento[][] a = Pento.library();
+        names = new char[a.length];
+        first = new int[a.length+1];
+        for( int i=0 ; i!=a.length ; i++ )
+        {
+            names[i] = a[i][0].getName();
+            first[i+1] = first[i]+a[i].length;
+        }
+        dx = new int[5*first[a.length]];
+        dy = new int[5*first[a.length]];
+        for( int i=0 ; i!=a.length ; i++ )
+        {
+            for( int j=0 ; j!=a[i].length ; j++ )
+            {
+                int v = first[i]+j;
+                for( int k=0 ; k!=5 ; k++ )
+                {
+                    dx[5*v+k] = a[i][j].getX(k);
+                    dy[5*v+k] = a[i][j].getY(k);
+                }
+            }
+        }
+        stamp = new int[rows*cols];
+        frontier = new int[rows*cols];
+        left = new int[a.length];
+        placed = new int[0];
+    }
+
+    // Notkun: int r = g.rows();
+    // Fyrir:  Ekkert.
+    // Eftir:  r er fjöldi lína í borðunum sem g býr til.
+    public int rows()
+    {
+        return rows;
+    }
+
+    // Notkun: int c = g.cols();
+    // Fyrir:  Ekkert.
+    // Eftir:  c er fjöldi dálka í borðunum sem g býr til.
+    public int cols()
+    {
+        return cols;
+    }
+
+    // Notkun: String[] s = g.next(r,copies);
+    // Fyrir:  r er slembitalnagjafi, copies >= 1.
+    // Eftir:  s er lausn á slembnu borði af stærð g þar sem hver
+    //         fimmferningur er notaður nákvæmlega copies sinnum, eða null
+    //         ef ekkert slíkt borð fannst í TRIES tilraunum, t.d. af því
+    //         að borðið er of lítið eða mjótt.  Þrautin sjálf fæst með
+    //         því að setja bil í stað stafanna í s, sjá puzzle.
+    public String[] next( Random r, int copies )
+    {
+        if( copies < 1 ) throw new Error();
+        int pieces = copies*names.length;
+        if( 5L*pieces > (long)rows*cols ) return null;
+        if( placed.length < 2*pieces ) placed = new int[2*pieces];
+        for( int t=0 ; t!=TRIES ; t++ )
+        {
+            if( t < GROWTH_TRIES ? attempt(r,copies,pieces) : backtrack(r,copies,pieces) ) return render(pieces);
+        }
+        return null;
+    }
+
+    // Notkun: String[] b = BoardGenerator.puzzle(s);
+    // Fyrir:  s er lausn, t.d. úr next.
+    // Eftir:  b er þrautin sem s leysir, þ.e. s með bil í stað nafna
+    //         fimmferninganna.
+    public static String[] puzzle( String[] s )
+    {
+        String[] b = new String[s.length];
+        for( int i=0 ; i!=s.length ; i++ )
+        {
+            char[] line = s[i].toCharArray();
+            for( int j=0 ; j!=line.length ; j++ )
+                if( line[j] != '*' ) line[j] = ' ';
+            b[i] = new String(line);
+        }
+        return b;
+    }
+
+    // Notkun: boolean ok = g.attempt(r,copies,pieces);
+    // Fyrir:  pieces = copies*names.length, placed rúmar pieces
+    //         fimmferninga.
+    // Eftir:  Ef ok er satt eru placed[0..2*pieces-1] fimmferningar sem
+    //         skarast ekki, þekja samhangandi svæði og nota hvern
+    //         fimmferning copies sinnum.
+    private boolean attempt( Random r, int copies, int pieces )
+    {
+        if( ++round > Integer.MAX_VALUE/2 )
+        {
+            Arrays.fill(stamp,0);
+            round = 1;
+        }
+        int used = 2*round, seen = 2*round-1;
+        Arrays.fill(left,copies);
+        int edge = 0;
+        frontier[edge++] = r.nextInt(rows*cols);
+        stamp[frontier[0]] = seen;
+
+        for( int n=0 ; n!=pieces ; n++ )
+        {
+            int found = -1, at = -1;
+            while( found < 0 && edge != 0 )
+            {
+                int i = r.nextInt(edge);
+                int c = frontier[i];
+                frontier[i] = frontier[--edge];
+                if( stamp[c] == used ) continue;
+                int x = c/cols, y = c%cols;
+                int options = 0;
+                for( int p=0 ; p!=names.length ; p++ )
+                {
+                    if( left[p] == 0 ) continue;
+                    for( int v=first[p] ; v!=first[p+1] ; v++ )
+                    {
+                        for( int m=0 ; m!=5 ; m++ )
+                        {
+                            int ax = x-dx[5*v+m], ay = y-dy[5*v+m];
+                            if( fits(v,ax,ay,used) && r.nextInt(++options) == 0 )
+                            {
+                                found = v;
+                                at = ax*cols+ay;
+                            }
+                        }
+                    }
+                }
+            }
+            if( found < 0 ) return false;
+            placed[2*n] = found;
+            placed[2*n+1] = at;
+            left[piece(found)]--;
+            edge = take(found,at,used,seen,edge);
+        }
+        return true;
+    }
+
+    // Notkun: boolean ok = g.backtrack(r,copies,pieces);
+    // Fyrir:  pieces = copies*names.length, placed rúmar pieces
+    //         fimmferninga.
+    // Eftir:  Ef ok er satt eru placed[0..2*pieces-1] fimmferningar sem
+    //         skarast ekki og nota hvern fimmferning copies sinnum.
+    //         Leitað er í mesta lagi í BUDGET hnútum.
+    private boolean backtrack( Random r, int copies, int pieces )
+    {
+        if( ++round > Integer.MAX_VALUE/2 )
+        {
+            Arrays.fill(stamp,0);
+            round = 1;
+        }
+        Arrays.fill(left,copies);
+        budget = BUDGET;
+        return search(r,0,rows*cols-5*pieces,0,pieces,2*round);
+    }
+
+    // Notkun: boolean ok = g.search(r,pos,holes,n,pieces,used);
+    // Fyrir:  Reitir á undan reit númer pos í röðinni dálk fyrir dálk
+    //         eru uppteknir, þ.e. þaktir af placed[0..2*n-1] eða gerðir
+    //         að fullum reitum, og holes reiti á eftir að gera að fullum.
+    // Eftir:  Ef ok er satt er búið að fylla borðið og placed[0..]
+    //         eru pieces fimmferningar.  Annars er allt eins og áður.
+    //         Í bæði skiptin hefur budget minnkað um fjölda hnúta.
+    //         Reitirnir og fimmferningarnir eru reyndir í slembinni röð
+    //         svo borðin verða ólík hvert öðru.  Auður reitur er gerður
+    //         fullur fyrst með líkum holes/(reitir eftir).
+    private boolean search( Random r, int pos, int holes, int n, int pieces, int used )
+    {
+        if( --budget < 0 ) return false;
+        int size = rows*cols;
+        while( pos != size && stamp[pos%rows*cols+pos/rows] == used ) pos++;
+        if( pos == size ) return n == pieces;
+        int x = pos%rows, y = pos/rows, c = x*cols+y;
+
+        int[] cand = new int[first[names.length]];
+        int k = 0;
+        for( int p=0 ; p!=names.length ; p++ )
+        {
+            if( left[p] == 0 ) continue;
+            for( int v=first[p] ; v!=first[p+1] ; v++ )
+                if( fits(v,x,y,used) ) cand[k++] = v;
+        }
+        boolean holeFirst = holes > 0 && r.nextInt(size-pos) < holes;
+        if( holeFirst && hole(r,pos,holes,n,pieces,used) ) return true;
+        for( int i=0 ; i!=k ; i++ )
+        {
+            int j = i+r.nextInt(k-i);
+            int v = cand[j];
+            cand[j] = cand[i];
+            for( int q=5*v ; q!=5*v+5 ; q++ ) stamp[(x+dx[q])*cols+y+dy[q]] = used;
+            left[piece(v)]--;
+            placed[2*n] = v;
+            placed[2*n+1] = c;
+            if( search(r,pos+1,holes,n+1,pieces,used) ) return true;
+            left[piece(v)]++;
+            for( int q=5*v ; q!=5*v+5 ; q++ ) stamp[(x+dx[q])*cols+y+dy[q]] = 0;
+            if( budget < 0 ) return false;
+        }
+        return !holeFirst && holes > 0 && hole(r,pos,holes,n,pieces,used);
+    }
+
+    // Notkun: boolean ok = g.hole(r,pos,holes,n,pieces,used);
+    // Fyrir:  Eins og í search, holes > 0 og reitur pos er laus.
+    // Eftir:  Eins og search(r,pos+1,holes-1,n,pieces,used) eftir að
+    //         reitur pos hefur verið gerður fullur.
+    private boolean hole( Random r, int pos, int holes, int n, int pieces, int used )
+    {
+        int c = pos%rows*cols+pos/rows;
+        stamp[c] = used;
+        if( search(r,pos+1,holes-1,n,pieces,used) ) return true;
+        stamp[c] = 0;
+        return false;
+    }
+
+    // Notkun: boolean ok = g.fits(v,x,y,used);
+    // Fyrir:  0 <= v < first[names.length].
+    // Eftir:  ok er satt þá og því aðeins að afbrigði v með fyrsta punkt
+    //         í (x,y) sé innan borðsins og þekji aðeins lausa reiti.
+    private boolean fits( int v, int x, int y, int used )
+    {
+        for( int k=5*v ; k!=5*v+5 ; k++ )
+        {
+            int px = x+dx[k], py = y+dy[k];
+            if( px < 0 || px >= rows || py < 0 || py >= cols ) return false;
+            if( stamp[px*cols+py] == used ) return false;
+        }
+        return true;
+    }
+
+    // Notkun: int i = g.piece(v);
+    // Fyrir:  0 <= v < first[names.length].
+    // Eftir:  v er afbrigði fimmfernings i.
+    private int piece( int v )
+    {
+        int i = 0;
+        while( first[i+1] <= v ) i++;
+        return i;
+    }
+
+    // Notkun: int e = g.take(v,at,used,seen,edge);
+    // Fyrir:  Afbrigði v með fyrsta punkt í reit at passar, og
+    //         frontier[0..edge-1] er jaðarinn.
+    // Eftir:  Reitirnir sem það þekur eru uppteknir og lausum nágrönnum
+    //         þeirra sem ekki voru í jaðrinum hefur verið bætt við hann.
+    //         frontier[0..e-1] er nýi jaðarinn.
+    private int take( int v, int at, int used, int seen, int edge )
+    {
+        int x = at/cols, y = at%cols;
+        for( int k=5*v ; k!=5*v+5 ; k++ ) stamp[(x+dx[k])*cols+y+dy[k]] = used;
+        for( int k=5*v ; k!=5*v+5 ; k++ )
+        {
+            int px = x+dx[k], py = y+dy[k], c = px*cols+py;
+            if( px != 0 ) edge = push(c-cols,used,seen,edge);
+            if( px != rows-1 ) edge = push(c+cols,used,seen,edge);
+            if( py != 0 ) edge = push(c-1,used,seen,edge);
+            if( py != cols-1 ) edge = push(c+1,used,seen,edge);
+        }
+        return edge;
+    }
+
+    // Notkun: int e = g.push(c,used,seen,edge);
+    // Fyrir:  c er reitur, frontier[0..edge-1] er jaðarinn.
+    // Eftir:  Ef c er laus og hefur ekki verið í jaðrinum er búið að
+    //         bæta honum við hann.  frontier[0..e-1] er nýi jaðarinn.
+    private int push( int c, int used, int seen, int edge )
+    {
+        if( stamp[c] == used || stamp[c] == seen ) return edge;
+        stamp[c] = seen;
+        frontier[edge++] = c;
+        return edge;
+    }
+
+    // Notkun: String[] s = g.render(pieces);
+    // Fyrir:  placed[0..2*pieces-1] eru fimmferningar sem skarast ekki.
+    // Eftir:  s er borð af stærð g þar sem reitirnir sem þeir þekja eru
+    //         merktir með nöfnum þeirra og allir aðrir eru fullir.
+    private String[] render( int pieces )
+    {
+        char[][] b = new char[rows][cols];
+        for( char[] line: b ) Arrays.fill(line,'*');
+        for( int n=0 ; n!=pieces ; n++ )
+        {
+            int v = placed[2*n], x = placed[2*n+1]/cols, y = placed[2*n+1]%cols;
+            char name = names[piece(v)];
+            for( int k=5*v ; k!=5*v+5 ; k++ ) b[x+dx[k]][y+dy[k]] = name;
+        }
+        String[] res = new String[rows];
+        for( int x=0 ; x!=rows ; x++ ) res[x] = new String(b[x]);
+        return res;
+    }
+
+    // Notkun: BoardGenerator.main(args);
+    // Fyrir:  args eru viðföngin sem lýst er að ofan.
+    // Eftir:  Búið er að skrifa borðin.  Forritið hættir með stöðu 0 ef
+    //         allt gekk, 1 ef ekki fannst borð og 2 ef viðföngin voru
+    //         ólögleg.
+    public static void main( String[] args )
+        throws IOException
+    {
+        int copies = 1;
+        long seed = System.nanoTime();
+        int rows, cols, count;
+        Path dir;
+        try
+        {
+            int i = 0;
+            for( ; i != args.length && args[i].startsWith("-") ; i++ )
+            {
+                if( args[i].equals("-copies") )
+                    copies = Integer.parseInt(args[++i]);
+                else if( args[i].equals("-seed") )
+                    seed = Long.parseLong(args[++i]);
+                else
+                    throw new IllegalArgumentException(args[i]);
+            }
+            if( args.length-i != 4 ) throw new IllegalArgumentException();
+            rows = Integer.parseInt(args[i]);
+            cols = Integer.parseInt(args[i+1]);
+            count = Integer.parseInt(args[i+2]);
+            dir = Paths.get(args[i+3]);
+            if( rows < 1 || cols < 1 || count < 0 || copies < 1 ) throw new IllegalArgumentException();
+        }
+        catch( RuntimeException e )
+        {
+            System.err.println("Usage: BoardGenerator [-copies n] [-seed s] rows cols count dir");
+            System.exit(2);
+            return;
+        }
+        BoardGenerator g = new BoardGenerator(rows,cols);
+        Random r = new Random(seed);
+        Files.createDirectories(dir);
+        for( int i=0 ; i!=count ; i++ )
+        {
+            String[] s = g.next(r,copies);
+            if( s == null )
+            {
+                System.err.println("No "+rows+"x"+cols+" board with "+copies+" copies of each piece found");
+                System.exit(1);
+            }
+            String content = String.join(System.getProperty("line.separator"),puzzle(s));
+            Files.write(dir.resolve(String.format("board-%05d.pento",i)),content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
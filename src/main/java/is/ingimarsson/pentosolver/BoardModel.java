@@ -0,0 +1,211 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+// Tilvik af BoardModel er breytanlegt borð fyrir ritilinn, geymt sem
+// fylki af stöfum, á sama formi og Pento klasinn tilgreinir. Líkanið
+// heldur utan um fjölda auðra reita jafnóðum og lætur hlustendur vita
+// af hverri breytingu, svo hvorki þarf að afrita borðið við hverja
+// breytingu né skanna það til að telja auða reiti. Borðinu er aðeins
+// breytt í String[] þegar það er sent í Pento, með toStrings().
+public class BoardModel {
+    // Fastayrðing gagna
+    //
+    // cells[y][x] er stafurinn í reit (x,y), þ.e. í dálki x í línu y.
+    // Allar línurnar eru jafnlangar. empty er fjöldi reita sem
+    // innihalda bil. listeners eru hlustendurnir sem látnir eru vita
+    // af breytingum.
+    private char[][] cells;
+    private int empty;
+    private final ArrayList<Listener> listeners = new ArrayList<Listener>();
+
+    // Hlutir af tagi Listener hlusta á breytingar á BoardModel.
+    public interface Listener {
+        // Notkun: l.cellChanged(x, y)
+        // Fyrir:  Reit (x,y) í líkaninu sem l hlustar á var breytt.
+        // Eftir:  l hefur brugðist við breytingunni.
+        void cellChanged(int x, int y);
+
+        // Notkun: l.boardChanged()
+        // Fyrir:  Stærð borðsins í líkaninu sem l hlustar á, eða
+        //         mörgum reitum þess, var breytt.
+        // Eftir:  l hefur brugðist við breytingunni.
+        void boardChanged();
+    }
+
+    // Notkun: BoardModel m = new BoardModel(b)
+    // Fyrir:  b er borð framsett sem fylki strengja.
+    // Eftir:  m er nýtt líkan með borðinu b. Línur sem eru styttri en
+    //         sú lengsta eru lengdar með fylltum reitum ('*').
+    public BoardModel(String[] b) {
+        this.cells = toCells(b);
+        this.empty = count(this.cells);
+    }
+
+    // Notkun: m.addListener(l)
+    // Fyrir:  l er Listener.
+    // Eftir:  l er látinn vita af öllum breytingum á m héðan í frá.
+    public void addListener(Listener l) {
+        this.listeners.add(l);
+    }
+
+    // Notkun: int r = m.rows()
+    // Fyrir:  Ekkert.
+    // Eftir:  r er fjöldi lína í borðinu.
+    public int rows() {
+        return this.cells.length;
+    }
+
+    // Notkun: int c = m.cols()
+    // Fyrir:  Ekkert.
+    // Eftir:  c er fjöldi dálka í borðinu.
+    public int cols() {
+        return this.cells.length == 0 ? 0 : this.cells[0].length;
+    }
+
+    // Notkun: int e = m.countEmpty()
+    // Fyrir:  Ekkert.
+    // Eftir:  e er fjöldi auðra reita í borðinu.
+    public int countEmpty() {
+        return this.empty;
+    }
+
+    // Notkun: char ch = m.get(x, y)
+    // Fyrir:  0 <= x < m.cols(), 0 <= y < m.rows().
+    // Eftir:  ch er stafurinn í reit (x,y).
+    public char get(int x, int y) {
+        return this.cells[y][x];
+    }
+
+    // Notkun: m.set(x, y, ch)
+    // Fyrir:  0 <= x < m.cols(), 0 <= y < m.rows().
+    // Eftir:  Reitur (x,y) inniheldur ch. Hlustendur hafa verið látnir
+    //         vita ef hann breyttist.
+    public void set(int x, int y, char ch) {
+        char old = this.cells[y][x];
+        if (old == ch) return;
+
+        this.cells[y][x] = ch;
+        if (old == ' ') this.empty--;
+        if (ch == ' ') this.empty++;
+
+        for (Listener l : this.listeners) {
+            l.cellChanged(x, y);
+        }
+    }
+
+    // Notkun: m.setAll(b)
+    // Fyrir:  b er borð framsett sem fylki strengja.
+    // Eftir:  m inniheldur borðið b, með stuttar línur lengdar eins og
+    //         í smiðnum. Ef b er jafnstórt og fyrra borð hafa
+    //         hlustendur verið látnir vita af hverjum reit sem breyttist,
+    //         annars af því að borðið breyttist.
+    public void setAll(String[] b) {
+        boolean same = b.length == this.rows();
+        for (int y=0; same && y<b.length; y++) {
+            same = b[y].length() == this.cols();
+        }
+
+        if (!same) {
+            this.cells = toCells(b);
+            this.empty = count(this.cells);
+            this.fireBoardChanged();
+            return;
+        }
+
+        for (int y=0; y<b.length; y++) {
+            String line = b[y];
+            for (int x=0; x<line.length(); x++) {
+                this.set(x, y, line.charAt(x));
+            }
+        }
+    }
+
+    // Notkun: m.clear(rows, cols)
+    // Fyrir:  rows >= 0, cols >= 0.
+    // Eftir:  m inniheldur borð með rows línum og cols dálkum þar sem
+    //         allir reitir eru auðir.
+    public void clear(int rows, int cols) {
+        this.cells = new char[rows][cols];
+        for (char[] line : this.cells) {
+            Arrays.fill(line, ' ');
+        }
+        this.empty = rows*cols;
+        this.fireBoardChanged();
+    }
+
+    // Notkun: m.randomize(r, p)
+    // Fyrir:  r er slembitalnagjafi, 0 <= p <= 1.
+    // Eftir:  Hver reitur í m er fylltur ('*') með líkum p og annars
+    //         auður. Stærð borðsins er óbreytt.
+    public void randomize(Random r, double p) {
+        int n = 0;
+        for (char[] line : this.cells) {
+            for (int x=0; x<line.length; x++) {
+                if (r.nextDouble() < p) {
+                    line[x] = '*';
+                }
+                else {
+                    line[x] = ' ';
+                    n++;
+                }
+            }
+        }
+        this.empty = n;
+        this.fireBoardChanged();
+    }
+
+    // Notkun: String[] b = m.toStrings()
+    // Fyrir:  Ekkert.
+    // Eftir:  b er nýtt fylki með borðinu í m, á því formi sem Pento
+    //         klasinn tekur við.
+    public String[] toStrings() {
+        String[] b = new String[this.cells.length];
+        for (int y=0; y<b.length; y++) {
+            b[y] = new String(this.cells[y]);
+        }
+        return b;
+    }
+
+    // Notkun: m.fireBoardChanged()
+    // Fyrir:  Ekkert.
+    // Eftir:  Allir hlustendur hafa verið látnir vita að borðið breyttist.
+    private void fireBoardChanged() {
+        for (Listener l : this.listeners) {
+            l.boardChanged();
+        }
+    }
+
+    // Notkun: char[][] c = toCells(b)
+    // Fyrir:  b er fylki strengja.
+    // Eftir:  c[y] eru stafirnir í b[y], og síðan '*' þar til c[y] er
+    //         jafnlangt lengsta strengnum í b.
+    private static char[][] toCells(String[] b) {
+        int cols = 0;
+        for (String line : b) {
+            cols = Math.max(cols, line.length());
+        }
+
+        char[][] c = new char[b.length][cols];
+        for (int y=0; y<b.length; y++) {
+            Arrays.fill(c[y], '*');
+            b[y].getChars(0, b[y].length(), c[y], 0);
+        }
+        return c;
+    }
+
+    // Notkun: int n = count(c)
+    // Fyrir:  Ekkert.
+    // Eftir:  n er fjöldi bila í c.
+    private static int count(char[][] c) {
+        int n = 0;
+        for (char[] line : c) {
+            for (char ch : line) {
+                if (ch == ' ') n++;
+            }
+        }
+        return n;
+    }
+}
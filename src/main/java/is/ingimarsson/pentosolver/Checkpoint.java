@@ -0,0 +1,102 @@
+package is.ingimarsson.pentosolver;
+
+// Tilvik af Checkpoint er vistuð staða leitar sem BitSearch getur
+// haldið áfram frá, svo löng leit sem er stöðvuð, t.d. við endurræsingu,
+// þarf ekki að byrja upp á nýtt.
+//
+// Staðan er leiðin frá rót leitartrésins að þeim hnút sem leitin var
+// komin í, sem númer staðsetninganna á leiðinni í BitBoard, fjöldi
+// eintaka af hverjum fimmferningi sem enn mátti nota þar og fjöldi
+// lausna sem fundnar voru á undan hnútnum.  Þegar haldið er áfram er
+// leitin í hnútnum og öllum hnútum á eftir honum í leitarröð, en ekki í
+// þeim sem á undan koma, svo engin lausn sem fannst fyrir vistunina
+// kemur aftur.
+//
+// Skráin byrjar á MAGIC og lykli sem lýsir þrautinni og stillingum
+// leitarinnar, svo ekki sé haldið áfram með rangri leit.  Hún er skrifuð
+// undir öðru nafni og svo færð yfir þá gömlu, svo hrun í miðri skrift
+// skilur alltaf eftir heila vistun.
+
+import java.io.*;
+import java.nio.file.*;
+
+final class Checkpoint
+{
+    private static final int MAGIC = 0x50454e43;
+
+    final String key;
+    final int[] path;
+    final int[] left;
+    final long solutions;
+    final boolean done;
+    // Fastayrðing gagna.
+    //  Leitin sem key lýsir var komin í hnútinn sem fæst með því að
+    //  setja staðsetningarnar path[0], path[1], ... á borðið, þar máttu
+    //  enn vera left[i] eintök af fimmferningi i og solutions lausnir
+    //  voru fundnar.  Ef done er satt er leitinni lokið, path er tómt og
+    //  solutions er heildarfjöldi lausna.
+
+    // Notkun: Checkpoint c = new Checkpoint(key,path,left,solutions,done);
+    // Fyrir:  Ekkert.
+    // Eftir:  c er vistun með þessum gildum.
+    Checkpoint( String key, int[] path, int[] left, long solutions, boolean done )
+    {
+        this.key = key;
+        this.path = path;
+        this.left = left;
+        this.solutions = solutions;
+        this.done = done;
+    }
+
+    // Notkun: Checkpoint c = Checkpoint.read(f);
+    // Fyrir:  f er slóð.
+    // Eftir:  c er vistunin í skránni f, eða null ef hún er ekki til.
+    //         Ef f er ekki vistun er IOException kastað.
+    static Checkpoint read( Path f )
+        throws IOException
+    {
+        if( !Files.exists(f) ) return null;
+        try( DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(f))) )
+        {
+            if( in.readInt() != MAGIC ) throw new IOException(f+" is not a checkpoint");
+            String key = in.readUTF();
+            boolean done = in.readBoolean();
+            long solutions = in.readLong();
+            int[] path = new int[in.readInt()];
+            for( int i=0 ; i!=path.length ; i++ ) path[i] = in.readInt();
+            int[] left = new int[in.readInt()];
+            for( int i=0 ; i!=left.length ; i++ ) left[i] = in.readInt();
+            return new Checkpoint(key,path,left,solutions,done);
+        }
+    }
+
+    // Notkun: c.write(f);
+    // Fyrir:  Mappan sem f er í er til.
+    // Eftir:  c hefur verið skrifuð í f í stað þess sem þar var.  Sá sem
+    //         les f sér annaðhvort gömlu vistunina eða c, aldrei hluta.
+    void write( Path f )
+        throws IOException
+    {
+        Path dir = f.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir,"checkpoint",".tmp");
+        try
+        {
+            try( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))) )
+            {
+                out.writeInt(MAGIC);
+                out.writeUTF(key);
+                out.writeBoolean(done);
+                out.writeLong(solutions);
+                out.writeInt(path.length);
+                for( int p: path ) out.writeInt(p);
+                out.writeInt(left.length);
+                for( int k: left ) out.writeInt(k);
+            }
+            Files.move(tmp,f,StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
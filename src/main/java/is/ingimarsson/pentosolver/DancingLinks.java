@@ -0,0 +1,292 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.Arrays;
+
+// Tilvik af DancingLinks leysir fimmferningaþraut sem nákvæmt
+// þekjuverkefni (exact cover) með reikniriti X eftir Knuth, þar
+// sem fylkið er geymt sem tvítengdir hringlistar ("dancing links").
+//
+// Fylkið hefur einn dálk fyrir hvern fimmferning og einn dálk fyrir
+// hvern auðan reit á borðinu.  Hver lína fylkisins samsvarar því að
+// setja einhvern fimmferning, í einhverju snúningsástandi, á einhvern
+// stað á borðinu þar sem hann þekur aðeins auða reiti.  Línan hefur
+// þá sex stök: dálk fimmferningsins og dálka reitanna fimm.
+//
+// Dálkar reitanna þarf að þekja nákvæmlega einu sinni.  Dálkar
+// fimmferninganna þarf einnig að þekja nákvæmlega einu sinni ef
+// auðu reitirnir eru nákvæmlega 5*12, annars má þekja þá í mesta
+// lagi einu sinni.  Í hverju skrefi er valinn sá dálkur sem þarf að
+// þekja og hefur fæstar línur.
+
+final class DancingLinks
+{
+    private final char[][] template;
+    private final Pento.Sink sink;
+    private final boolean partial;
+    private final int[] left, right, up, down, column, row;
+    private final int[] count;
+    private final int[] rowPiece, rowVariant, rowX, rowY;
+    private final Pento[][] a;
+    private final int[] path;
+    private int depth = 0;
+    private final SearchStats.Counters stats;
+    // Fastayrðing gagna.
+    //  Hnútur 0 er haus dálkalistans og hnútar 1..columns eru dálkahausar.
+    //  Hnútar þar á eftir eru stök fylkisins.  left, right, up og down
+    //  tengja hnútana saman í hringlista, column[k] er dálkur hnúts k og
+    //  row[k] er lína hans.  count[c] er fjöldi lína í dálki c sem ekki
+    //  hafa verið fjarlægðar.  Lína r samsvarar a[rowPiece[r]][rowVariant[r]]
+    //  með fyrsta punkt í reit (rowX[r],rowY[r]) á borðinu template.
+    //  path[0..depth-1] eru línurnar sem valdar hafa verið.
+    //  stats telur hnúta og línur ef SearchStats.ON er satt, annars er
+    //  það null.
+
+    // Notkun: DancingLinks d = new DancingLinks(a,board,sink,partial);
+    // Fyrir:  a er Pento[][] eins og útkoman úr Pento.generateAll(),
+    //         board er char[][] með engin null undirfylki, sink tekur
+    //         við lausnum.
+    // Eftir:  d er ný leit sem, þegar hún er keyrð, sendir allar lausnir
+    //         á board í sink og ef partial er satt einnig öll hlutborð
+    //         sem verða til í leitinni.
+    DancingLinks( Pento[][] a, char[][] board, Pento.Sink sink, boolean partial )
+    {
+        this.a = a;
+        this.template = board;
+        this.sink = sink;
+        this.partial = partial;
+
+        int[][] cellColumn = new int[board.length][];
+        int columns = a.length;
+        for( int x=0 ; x!=board.length ; x++ )
+        {
+            cellColumn[x] = new int[board[x].length];
+            for( int y=0 ; y!=board[x].length ; y++ )
+                cellColumn[x][y] = board[x][y] == ' ' ? ++columns : 0;
+        }
+        int empty = columns-a.length;
+
+        int rows = 0;
+        int[] pieceOf = new int[256], variantOf = new int[256];
+        int[] xOf = new int[256], yOf = new int[256];
+        for( int x=0 ; x!=board.length ; x++ )
+        {
+            for( int y=0 ; y!=board[x].length ; y++ )
+            {
+                if( cellColumn[x][y] == 0 ) continue;
+                for( int i=0 ; i!=a.length ; i++ )
+                {
+                    for( int j=0 ; j!=a[i].length ; j++ )
+                    {
+                        if( !fits(cellColumn,x,y,a[i][j]) ) continue;
+                        if( rows == pieceOf.length )
+                        {
+                            pieceOf = Arrays.copyOf(pieceOf,2*rows);
+                            variantOf = Arrays.copyOf(variantOf,2*rows);
+                            xOf = Arrays.copyOf(xOf,2*rows);
+                            yOf = Arrays.copyOf(yOf,2*rows);
+                        }
+                        pieceOf[rows] = i;
+                        variantOf[rows] = j;
+                        xOf[rows] = x;
+                        yOf[rows] = y;
+                        rows++;
+                    }
+                }
+            }
+        }
+        rowPiece = pieceOf;
+        rowVariant = variantOf;
+        rowX = xOf;
+        rowY = yOf;
+
+        int nodes = columns+1+6*rows;
+        left = new int[nodes];
+        right = new int[nodes];
+        up = new int[nodes];
+        down = new int[nodes];
+        column = new int[nodes];
+        row = new int[nodes];
+        count = new int[columns+1];
+        path = new int[a.length];
+        stats = SearchStats.ON ? new SearchStats.Counters("DLX",empty) : null;
+
+        // Dálkar fimmferninga eru aðeins í hauslistanum ef þekja
+        // þarf þá, þ.e. ef borðið hefur pláss fyrir alla fimmferningana.
+        boolean allPieces = empty == 5*a.length;
+        left[0] = right[0] = 0;
+        for( int c=1 ; c<=columns ; c++ )
+        {
+            up[c] = down[c] = column[c] = c;
+            if( c <= a.length && !allPieces )
+            {
+                left[c] = right[c] = c;
+                continue;
+            }
+            left[c] = left[0];
+            right[c] = 0;
+            right[left[0]] = c;
+            left[0] = c;
+        }
+
+        int k = columns+1;
+        int[] cols = new int[6];
+        for( int r=0 ; r!=rows ; r++ )
+        {
+            Pento p = a[rowPiece[r]][rowVariant[r]];
+            cols[0] = rowPiece[r]+1;
+            for( int i=0 ; i!=5 ; i++ )
+                cols[i+1] = cellColumn[rowX[r]+p.getX(i)][rowY[r]+p.getY(i)];
+            int first = k;
+            for( int i=0 ; i!=6 ; i++ )
+            {
+                int c = cols[i];
+                column[k] = c;
+                row[k] = r;
+                up[k] = up[c];
+                down[k] = c;
+                down[up[c]] = k;
+                up[c] = k;
+                count[c]++;
+                left[k] = i==0 ? k : k-1;
+                right[k] = first;
+                right[left[k]] = k;
+                left[first] = k;
+                k++;
+            }
+        }
+    }
+
+    // Notkun: boolean ok = fits(cellColumn,x,y,p);
+    // Fyrir:  cellColumn[x][y] er dálkur reits (x,y) ef hann er auður,
+    //         annars 0.
+    // Eftir:  ok er satt þá og því aðeins að p þeki aðeins auða reiti
+    //         ef fyrsti punktur hans er í (x,y).
+    private static boolean fits( int[][] cellColumn, int x, int y, Pento p )
+    {
+        for( int i=0 ; i!=5 ; i++ )
+        {
+            int px = x+p.getX(i), py = y+p.getY(i);
+            if( px < 0 || px >= cellColumn.length || py >= cellColumn[px].length ) return false;
+            if( cellColumn[px][py] == 0 ) return false;
+        }
+        return true;
+    }
+
+    // Notkun: d.run();
+    // Fyrir:  d hefur ekki verið keyrð áður.
+    // Eftir:  Búið er að senda allar lausnir í sink.
+    void run()
+        throws InterruptedException
+    {
+        if( !SearchStats.ON )
+        {
+            search();
+            return;
+        }
+        stats.begin();
+        try
+        {
+            search();
+        }
+        finally
+        {
+            stats.end();
+        }
+    }
+
+    // Notkun: search();
+    // Fyrir:  Ekkert.
+    // Eftir:  Búið er að senda allar lausnir sem framlengja línurnar
+    //         í path í sink.  Fylkið er óbreytt.
+    private void search()
+        throws InterruptedException
+    {
+        Pento.checkInterrupt();
+        if( SearchStats.ON ) stats.node(depth);
+        if( right[0] == 0 )
+        {
+            if( SearchStats.ON ) stats.solutions++;
+            if( !partial ) sink.put(render());
+            return;
+        }
+        int c = right[0];
+        for( int j=right[c] ; j!=0 ; j=right[j] )
+            if( count[j] < count[c] ) c = j;
+        if( count[c] == 0 )
+        {
+            if( SearchStats.ON ) stats.backtracks++;
+            return;
+        }
+        cover(c);
+        for( int r=down[c] ; r!=c ; r=down[r] )
+        {
+            if( SearchStats.ON )
+            {
+                stats.tried++;
+                stats.placed++;
+            }
+            path[depth++] = row[r];
+            for( int j=right[r] ; j!=r ; j=right[j] ) cover(column[j]);
+            if( partial ) sink.put(render());
+            search();
+            for( int j=left[r] ; j!=r ; j=left[j] ) uncover(column[j]);
+            depth--;
+        }
+        uncover(c);
+    }
+
+    // Notkun: cover(c);
+    // Fyrir:  c er dálkur sem ekki hefur verið fjarlægður.
+    // Eftir:  Búið er að fjarlægja c og allar línur sem hafa stak í c.
+    private void cover( int c )
+    {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for( int i=down[c] ; i!=c ; i=down[i] )
+        {
+            for( int j=right[i] ; j!=i ; j=right[j] )
+            {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                count[column[j]]--;
+            }
+        }
+    }
+
+    // Notkun: uncover(c);
+    // Fyrir:  c er síðasti dálkurinn sem fjarlægður var með cover.
+    // Eftir:  Búið er að setja c og línur hans aftur inn.
+    private void uncover( int c )
+    {
+        for( int i=up[c] ; i!=c ; i=up[i] )
+        {
+            for( int j=left[i] ; j!=i ; j=left[j] )
+            {
+                count[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+
+    // Notkun: String[] b = d.render();
+    // Fyrir:  Ekkert.
+    // Eftir:  b er nýtt borð sem sýnir upphaflega borðið ásamt þeim
+    //         fimmferningum sem nú eru valdir.
+    private String[] render()
+    {
+        char[][] b = new char[template.length][];
+        for( int x=0 ; x!=b.length ; x++ ) b[x] = template[x].clone();
+        for( int d=0 ; d!=depth ; d++ )
+        {
+            int r = path[d];
+            Pento p = a[rowPiece[r]][rowVariant[r]];
+            for( int k=0 ; k!=5 ; k++ ) b[rowX[r]+p.getX(k)][rowY[r]+p.getY(k)] = p.getName();
+        }
+        String[] res = new String[b.length];
+        for( int x=0 ; x!=b.length ; x++ ) res[x] = new String(b[x]);
+        return res;
+    }
+}
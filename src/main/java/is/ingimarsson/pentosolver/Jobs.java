@@ -0,0 +1,266 @@
+package is.ingimarsson.pentosolver;
+
+// Jobs er skipanalínuforrit sem skiptir einni stórri leit í sjálfstæð
+// verk sem leysa má í mörgum JVM, t.d. á mörgum vélum, og tekur
+// niðurstöðurnar saman á eftir.  Verk og niðurstöður eru venjulegar
+// textaskrár, svo hvaða verkröðunarkerfi sem er getur keyrt verkin.
+//
+// Notkun:
+//   java -cp pentosolver.jar is.ingimarsson.pentosolver.Jobs split
+//        [-depth n] [-copies n] [-fewest] borð.pento mappa
+//   java -cp pentosolver.jar is.ingimarsson.pentosolver.Jobs work
+//        [-solutions] verk.job niðurstaða.result
+//   java -cp pentosolver.jar is.ingimarsson.pentosolver.Jobs merge
+//        [-solutions] [-out skrá] niðurstaða.result...
+//
+// split skrifar eitt verk, job-00000.job, job-00001.job, ..., í möppuna
+// fyrir hvern hnút á dýpt n (sjálfgefið 2) í leitartrénu fyrir borðið,
+// sjá MyIterable.split.  -copies og -fewest hafa sömu áhrif og
+// MyIterable.copies og Branching.FEWEST_OPTIONS.
+//
+// work leysir eitt verk og skrifar fjölda lausna þess í niðurstöðuskrá,
+// og lausnirnar sjálfar ef -solutions er gefið.  Skráin er skrifuð undir
+// öðru nafni og svo færð, svo hún er aðeins til ef verkinu er lokið.
+//
+// merge leggur saman fjölda lausna í niðurstöðunum og skrifar hann, á
+// staðalúttak eða í skrána sem -out tilgreinir, og síðan lausnirnar úr
+// þeim í þeirri röð sem skrárnar eru gefnar ef -solutions er gefið.
+// Ef niðurstöðurnar eru gefnar í röð verkanna koma lausnirnar í sömu
+// röð og þegar leitað er í einum þræði.  Ef einhver niðurstaða er ekki
+// til eða er gölluð er það skrifað og forritið skilar stöðunni 1.
+//
+// Hvorki work né merge geyma lausnirnar í minni, heldur skrifa hverja
+// lausn um leið og hún finnst eða er lesin, svo verk með milljónum
+// lausna komast af með jafnlítið minni og þau smæstu.
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class Jobs
+{
+    // Notkun: Jobs.main(args);
+    // Fyrir:  args eru viðföngin sem lýst er að ofan.
+    // Eftir:  Búið er að framkvæma skipunina.  Forritið hættir með
+    //         stöðu 0 ef allt gekk, 1 ef einhver skrá var gölluð og 2 ef
+    //         viðföngin voru ólögleg.
+    public static void main( String[] args )
+        throws IOException
+    {
+        System.exit(run(args,System.out,System.err));
+    }
+
+    // Notkun: int status = Jobs.run(args,out,err);
+    // Fyrir:  args eru viðföngin sem lýst er að ofan, out og err eru
+    //         opnir straumar.
+    // Eftir:  Búið er að framkvæma skipunina og skrifa niðurstöðu
+    //         merge í out, eða í skrána sem -out tilgreinir.  Villuboð
+    //         eru skrifuð í err.  status er staðan sem main hættir með.
+    static int run( String[] args, PrintStream out, PrintStream err )
+        throws IOException
+    {
+        int depth = 2;
+        int copies = 1;
+        boolean fewest = false;
+        boolean solutions = false;
+        String outFile = null;
+        List<String> files = new ArrayList<String>();
+        String mode = args.length == 0 ? "" : args[0];
+        try
+        {
+            for( int i=1 ; i!=args.length ; i++ )
+            {
+                if( args[i].equals("-depth") )
+                    depth = Integer.parseInt(args[++i]);
+                else if( args[i].equals("-copies") )
+                    copies = Integer.parseInt(args[++i]);
+                else if( args[i].equals("-fewest") )
+                    fewest = true;
+                else if( args[i].equals("-solutions") )
+                    solutions = true;
+                else if( args[i].equals("-out") )
+                    outFile = args[++i];
+                else
+                    files.add(args[i]);
+            }
+        }
+        catch( NumberFormatException | ArrayIndexOutOfBoundsException e )
+        {
+            mode = "";
+        }
+        boolean ok = depth >= 0 && copies >= 0;
+        if( ok && mode.equals("split") && files.size() == 2 )
+            return split(Paths.get(files.get(0)),Paths.get(files.get(1)),depth,copies,fewest,err);
+        if( ok && mode.equals("work") && files.size() == 2 )
+            return work(Paths.get(files.get(0)),Paths.get(files.get(1)),solutions,err);
+        if( ok && mode.equals("merge") && !files.isEmpty() )
+        {
+            PrintStream res = outFile == null ? out : new PrintStream(new FileOutputStream(outFile),false,"UTF-8");
+            try
+            {
+                return merge(files,solutions,res,err);
+            }
+            finally
+            {
+                if( res != out ) res.close();
+            }
+        }
+        err.println("Usage: Jobs split [-depth n] [-copies n] [-fewest] board dir");
+        err.println("       Jobs work [-solutions] job result");
+        err.println("       Jobs merge [-solutions] [-out file] result...");
+        return 2;
+    }
+
+    // Notkun: int status = Jobs.split(board,dir,depth,copies,fewest,err);
+    // Fyrir:  board er slóð á .pento skrá, depth >= 0, copies >= 0.
+    // Eftir:  Búið er að skrifa verkin fyrir þrautina í board í dir og
+    //         status er 0, eða skrifa villuboð í err og status er 1.
+    static int split( Path board, Path dir, int depth, int copies, boolean fewest, PrintStream err )
+        throws IOException
+    {
+        List<String> jobs;
+        try
+        {
+            Pento.MyIterable spec = Pento.makeSolutions(Batch.read(board));
+            if( copies != 1 ) spec.copies(copies);
+            if( fewest ) spec.branching(Pento.Branching.FEWEST_OPTIONS);
+            jobs = spec.split(depth);
+        }
+        catch( IOException | RuntimeException e )
+        {
+            err.println(board+": error: "+e);
+            return 1;
+        }
+        Files.createDirectories(dir);
+        for( int i=0 ; i!=jobs.size() ; i++ )
+            Files.write(dir.resolve(String.format("job-%05d.job",i)),jobs.get(i).getBytes(StandardCharsets.UTF_8));
+        return 0;
+    }
+
+    // Notkun: int status = Jobs.work(job,result,solutions,err);
+    // Fyrir:  job er slóð á verk, result er slóð í möppu sem er til.
+    // Eftir:  Búið er að leysa verkið og skrifa niðurstöðuna í result og
+    //         status er 0, eða skrifa villuboð í err og status er 1.
+    //         Hver lausn er skrifuð í bráðabirgðaskrá um leið og hún
+    //         finnst, svo minnisnotkun er óháð fjölda lausna.
+    static int work( Path job, Path result, boolean solutions, PrintStream err )
+        throws IOException
+    {
+        Path dir = result.toAbsolutePath().getParent();
+        Path body = Files.createTempFile(dir,"result",".tmp");
+        Path tmp = null;
+        try
+        {
+            long n = 0;
+            try
+            {
+                Pento.MyIterable spec = Pento.job(new String(Files.readAllBytes(job),StandardCharsets.UTF_8));
+                if( solutions )
+                {
+                    try( Writer w = Files.newBufferedWriter(body,StandardCharsets.UTF_8);
+                         Pento.MyIterator it = spec.iterator() )
+                    {
+                        while( it.hasNext() )
+                        {
+                            for( String line: it.next() )
+                            {
+                                w.write(line);
+                                w.write('\n');
+                            }
+                            w.write('\n');
+                            n++;
+                        }
+                    }
+                }
+                else
+                {
+                    n = spec.count();
+                }
+            }
+            catch( IOException | RuntimeException e )
+            {
+                err.println(job+": error: "+e);
+                return 1;
+            }
+            tmp = Files.createTempFile(dir,"result",".tmp");
+            try( OutputStream o = Files.newOutputStream(tmp) )
+            {
+                o.write(("pentosolver result\ncount "+n+"\n").getBytes(StandardCharsets.UTF_8));
+                Files.copy(body,o);
+            }
+            Files.move(tmp,result,StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+            return 0;
+        }
+        finally
+        {
+            Files.deleteIfExists(body);
+            if( tmp != null ) Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Notkun: int status = Jobs.merge(files,solutions,out,err);
+    // Fyrir:  files eru slóðir á niðurstöður.
+    // Eftir:  Búið er að skrifa í out línu með heildarfjölda lausna í
+    //         files og, ef solutions er satt, lausnirnar úr þeim í röð.
+    //         status er 0 ef allar niðurstöðurnar voru lesnar, annars 1
+    //         og villuboð hafa verið skrifuð í err.  Fyrst eru aðeins
+    //         fyrstu línur skránna lesnar, til að leggja saman fjöldann,
+    //         og svo eru lausnirnar afritaðar úr einni skrá í einu, svo
+    //         minnisnotkun er óháð fjölda lausna.
+    static int merge( List<String> files, boolean solutions, PrintStream out, PrintStream err )
+    {
+        long total = 0;
+        int status = 0;
+        List<String> good = new ArrayList<String>();
+        for( String f: files )
+        {
+            try( BufferedReader r = Files.newBufferedReader(Paths.get(f),StandardCharsets.UTF_8) )
+            {
+                total += header(r);
+                good.add(f);
+            }
+            catch( IOException | RuntimeException e )
+            {
+                err.println(f+": error: "+e);
+                status = 1;
+            }
+        }
+        out.println(total+" solutions");
+        if( solutions )
+        {
+            Writer w = new OutputStreamWriter(out,StandardCharsets.UTF_8);
+            for( String f: good )
+            {
+                try( BufferedReader r = Files.newBufferedReader(Paths.get(f),StandardCharsets.UTF_8) )
+                {
+                    header(r);
+                    r.transferTo(w);
+                    w.flush();
+                }
+                catch( IOException | RuntimeException e )
+                {
+                    err.println(f+": error: "+e);
+                    status = 1;
+                }
+            }
+        }
+        out.flush();
+        return status;
+    }
+
+    // Notkun: long n = Jobs.header(r);
+    // Fyrir:  r les niðurstöðuskrá frá byrjun.
+    // Eftir:  Búið er að lesa tvær fyrstu línurnar og n er fjöldi
+    //         lausnanna sem þær segja að skráin innihaldi.  Ef þær eru
+    //         ekki á réttu sniði er IOException kastað.
+    private static long header( BufferedReader r )
+        throws IOException
+    {
+        String magic = r.readLine();
+        String count = r.readLine();
+        if( !"pentosolver result".equals(magic) || count == null || !count.startsWith("count ") )
+            throw new IOException("not a result");
+        return Long.parseLong(count.substring(6));
+    }
+}
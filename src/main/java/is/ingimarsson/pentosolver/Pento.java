@@ -26,7 +26,16 @@ package is.ingimarsson.pentosolver;
 
 // Höfundur: Snorri Agnarsson, 2020
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
 import java.awt.*;
 import java.awt.print.*;
 
@@ -152,6 +161,15 @@ public class Pento
         return y[i-1];
     }
 
+    // Notkun: char n = p.getName();
+    // Fyrir:  p vísar á löglegt tilvik af Pento.
+    // Eftir:  n er stafurinn sem er nafn p, einn af stöfunum
+    //         F,I,L,P,N,T,U,V,W,X,Y,Z.
+    public char getName()
+    {
+        return n;
+    }
+
     // Notkun: boolean eq = p1.equals(p2);
     // Fyrir:  p1 og p2 vísa á lögleg tilvik af Pento.
     // Eftir:  eq inniheldur true þá og því aðeins að
@@ -420,6 +438,19 @@ public class Pento
         return f;
     }
     
+    // Sameiginlegt safn allra fimmferninga, reiknað einu sinni.
+    private static final Pento[][] LIBRARY = generateAll();
+
+    // Notkun: Pento[][] a = Pento.library();
+    // Fyrir:  Ekkert.
+    // Eftir:  a er safn allra fimmferninga eins og útkoman úr
+    //         generateAll(), en sama fylkið er notað í öllum köllum
+    //         og því má ekki breyta því.
+    static Pento[][] library()
+    {
+        return LIBRARY;
+    }
+
     // Notkun: boolean oob = outOfBounds(board,x,y);
     // Fyrir:  x og y eru heiltölur, board er char[][] sem inniheldur
     //         engin null undirfylki.
@@ -479,7 +510,7 @@ public class Pento
     //         eins og útkoman úr generateAll().
     //         board er char[][].
     //         used er boolean[] af stærð 12.
-    //         iter vísar á flakkara af tagi MyIterator.
+    //         iter tekur við lausnum.
     //         partial er boolean gildi.
     // Eftir:  Búið er að senda allar lausnir inn í iter með
     //         put() boðinu í iter, þar sem lausnirnar uppfylla
@@ -496,43 +527,89 @@ public class Pento
     //         þar sem ekki er búið að fylla í alla auða reiti.
     //         Borðið board og fylkið used eru óbreytt frá því
     //         fyrir kallið.
-    public static void generateSolutions( Pento[][] a, char[][] board, boolean[] used, MyIterator iter, boolean partial )
+    public static void generateSolutions( Pento[][] a, char[][] board, boolean[] used, Sink iter, boolean partial )
+        throws InterruptedException
+    {
+        if( !SearchStats.ON )
+        {
+            generateSolutions(a,board,used,iter,partial,0,null);
+            return;
+        }
+        int empty = 0;
+        for( char[] line: board )
+            for( char c: line )
+                if( c == ' ' ) empty++;
+        SearchStats.Counters st = new SearchStats.Counters("CHARS",empty);
+        st.begin();
+        try
+        {
+            generateSolutions(a,board,used,iter,partial,0,st);
+        }
+        finally
+        {
+            st.end();
+        }
+    }
+
+    // Notkun: generateSolutions(a,board,used,iter,partial,k,st);
+    // Fyrir:  Sama og fyrir generateSolutions(a,board,used,iter,partial)
+    //         og auk þess er 0 <= k <= board[0].length*board.length og
+    //         ekkert sæti board[j][i] með i*board.length+j < k inniheldur
+    //         ' '.  st er teljari leitarinnar ef SearchStats.ON er satt.
+    // Eftir:  Sama og fyrir generateSolutions(a,board,used,iter,partial),
+    //         og hnútarnir og staðsetningarnar hafa verið taldar í st.
+    // Ath.:   Þar sem alltaf er fyllt í fyrsta auða sætið í dálkaröð þá
+    //         er það sæti, og öll á undan því, full í öllum undirköllum.
+    //         Leitin að næsta auða sæti heldur því áfram þaðan sem síðast
+    //         var hætt í stað þess að byrja efst í vinstra horni og
+    //         fer aðeins yfir sæti sem fyllst hafa síðan.
+    private static void generateSolutions( Pento[][] a, char[][] board, boolean[] used, Sink iter, boolean partial, int k, SearchStats.Counters st )
         throws InterruptedException
     {
-        int x=0,y=0;
-        boolean found=false;
-        for( int i=0 ; i!=board[0].length && !found ; i++ )
+        checkInterrupt();
+        long placed = 0;
+        if( SearchStats.ON )
+        {
+            int d = 0;
+            for( boolean u: used ) if( u ) d++;
+            st.node(d);
+            placed = st.placed;
+        }
+        int rows = board.length, cols = board[0].length;
+        int x = k%rows, y = k/rows;
+        while( y != cols && board[x][y] != ' ' )
         {
-            for( int j=0 ; j!=board.length && !found ; j++ )
+            if( ++x == rows )
             {
-                if( board[j][i] == ' ' )
-                {
-                    found=true;
-                    x = j;
-                    y = i;
-                }
+                x = 0;
+                y++;
             }
         }
-        if( !found )
+        if( y == cols )
         {
+            if( SearchStats.ON ) st.solutions++;
             if( !partial ) iter.put(copy(board));
             return;
         }
+        k = y*rows+x;
         for( int i=0 ; i!=used.length ; i++ )
         {
             if( used[i] ) continue;
             for( int j=0 ; j!=a[i].length ; j++ )
             {
+                if( SearchStats.ON ) st.tried++;
                 if( insert(board,x,y,a[i][j]) )
                 {
+                    if( SearchStats.ON ) st.placed++;
                     if( partial ) iter.put(copy(board));
                     used[i] = true;
-                    generateSolutions(a,board,used,iter,partial);
+                    generateSolutions(a,board,used,iter,partial,k+1,st);
                     remove(board,x,y,a[i][j]);
                     used[i] = false;
                 }
             }
         }
+        if( SearchStats.ON && st.placed == placed ) st.backtracks++;
     }
     
     // Notkun: String[] b = copy(board);
@@ -560,90 +637,153 @@ public class Pento
         return board;
     }
     
+    // Leitarvélar sem hægt er að nota til að finna lausnir.
+    //  CHARS er upphaflega leitin í generateSolutions sem vinnur
+    //  á char[][] borði.
+    //  BITS er sama leit þar sem borðið er geymt sem bitamengi, sjá
+    //  BitBoard og BitSearch.  Hún skilar sömu lausnum í sömu röð.
+    //  DLX leysir þrautina sem nákvæmt þekjuverkefni, sjá DancingLinks.
+    //  Hún skilar sömu lausnum en í annarri röð.
+    public enum Engine { CHARS, BITS, DLX }
+
+    // Reglur sem Engine.BITS getur notað til að velja reitinn sem
+    // fylltur er næst.
+    //  FIRST_EMPTY er fyrsti auði reiturinn í dálkaröð, eins og í
+    //  generateSolutions.
+    //  FEWEST_OPTIONS er sá auði reitur sem fæstar staðsetningar
+    //  ónotaðra fimmferninga passa í.  Þá verður leitartréð oft mun
+    //  minna, sérstaklega á óreglulegum borðum, en lausnirnar koma
+    //  í annarri röð.
+    public enum Branching { FIRST_EMPTY, FEWEST_OPTIONS }
+
+    // Fjöldi þrepa efst í leitartrénu sem skipt er í sjálfstæð verk
+    // þegar leitað er samhliða.
+    static final int SPLIT_LEVELS = 2;
+
+    // Sjálfgefinn fjöldi lausna sem leit má vera komin fram úr
+    // þeim sem flakkar yfir lausnirnar.
+    static final int DEFAULT_CAPACITY = 1024;
+
+    // Þræðir sem leita að lausnum fyrir flakkara.  Þræðirnir eru
+    // endurnýttir milli leita, hætta ef þeir hafa verið aðgerðalausir
+    // í mínútu og eru bakgrunnsþræðir (daemon) svo þeir halda forritinu
+    // ekki gangandi.
+    private static final ExecutorService WORKERS =
+        Executors.newCachedThreadPool(
+            r->
+            {
+                Thread t = new Thread(r,"pento-search");
+                t.setDaemon(true);
+                return t;
+            });
+
+    // Notkun: checkInterrupt();
+    // Fyrir:  Ekkert.
+    // Eftir:  Ef beðið hafði verið um að núverandi þráður hætti
+    //         (með interrupt) þá hefur InterruptedException verið
+    //         kastað og beiðnin hreinsuð.  Leitarvélarnar kalla á
+    //         þetta í hverjum hnút leitartrésins svo hægt sé að stöðva
+    //         þær fljótt, líka þegar þær finna engar lausnir.
+    static void checkInterrupt()
+        throws InterruptedException
+    {
+        if( Thread.interrupted() ) throw new InterruptedException();
+    }
+
+    // Tilvik af Sink taka við lausnum frá leitarvél.
+    interface Sink
+    {
+        // Notkun: s.put(board);
+        // Fyrir:  board er lausn, eða hlutlausn, á þraut.
+        // Eftir:  s hefur tekið við board.
+        void put( String[] board ) throws InterruptedException;
+    }
+
+    // Tilvik af RecordSink taka við lausnum frá BitSearch sem númerum
+    // staðsetninga fimmferninganna, án þess að borð sé búið til.
+    interface RecordSink
+    {
+        // Notkun: s.put(ps,n);
+        // Fyrir:  ps[0..n) eru númer staðsetninganna í lausn á þraut,
+        //         í BitBoard fyrir þrautina.
+        // Eftir:  s hefur tekið við lausninni.  s má ekki breyta ps og
+        //         ekki geyma tilvísun í það.
+        void put( int[] ps, int n ) throws InterruptedException;
+    }
+
     // Hlutir af tagi MyIterator eru flakkarar (iterators) sem
     // framleiða allar lausnir, án endurtekninga, fyrir þrautina
     // sem felst í að fylla út í alla auða reiti á borði með
     // fimmferningum án þess að nota neinn fimmferning oftar en
     // einu sinni.
-    private static class MyIterator implements Iterator<String[]>
+    // Ef ekki á að sækja allar lausnirnar á að loka flakkaranum með
+    // close(), t.d. með try( MyIterator it = ... ), svo leitin hætti
+    // og þráðurinn sem leitar losni.
+    public static class MyIterator implements Iterator<String[]>, AutoCloseable
     {
-        private String[] board = null;
-        private boolean hasValue = false;
-        private boolean done = false;
+        private final SolutionQueue queue;
+        private final Future<?> worker;
+        private final DoubleAdder progress = new DoubleAdder();
+        private final long started = System.nanoTime();
+        private volatile boolean closed = false;
         // Fastayrðing gagna:
-        //  Búið er að ræsa þráð sem framleiðir allar lausnir og
-        //  setur þær í þennan hlut gegnum put() boðið.
+        //  Búið er að ræsa verkið worker í WORKERS, á tímanum started,
+        //  sem framleiðir allar lausnir og setur þær í biðröðina queue.
+        //  Þegar verkið hefur framleitt allar lausnir, eða stöðvast
+        //  vegna villu eða vegna þess að það var stöðvað, kallar það á
+        //  queue.finish().  Verkið bætir við progress þeim hluta
+        //  leitartrésins sem það hefur lokið við.
         //
-        //  Búið er að sækja núll eða fleiri slíkar lausnir.  Síðasta
-        //  gildið sem framleiðsluþráðurinn sendir í put var eða verður
-        //  new String[1], þ.e. fylki af tagi String sem inniheldur
-        //  null í sæti 0.
-        //  
         //  Búið er að flakka gegnum núll eða fleiri af lausnunum
-        //  sem framleiddar eru. Ef næsta lausn á eftir er komin frá
-        //  framleiðsluþræðinum þá er hún í tilviksbreytunni board
-        //  og þá er hasValue satt.  Annars er hasValue ósatt.
-        //  Ef búið er að flakka yfir allar lausnir þá er done satt,
-        //  annars er done ósatt.
+        //  sem framleiddar eru, og þær sem eftir eru eru í queue
+        //  eða ófundnar.  Ef closed er satt þá hefur flakkaranum
+        //  verið lokað, worker stöðvað og queue lokað.  Kalla má á
+        //  close úr öðrum þræði en þeim sem flakkar.
         
-        // Notkun: MyIterator it = new MyIterator(board,partial);
-        // Fyrir:  board er String[] sem samsvarar fimmferningarþraut.
+        // Notkun: MyIterator it = new MyIterator(spec);
+        // Fyrir:  spec er tilvik af MyIterable.
         // Eftir:  it vísar á nýjan flakkara sem skilar öllum lausnum
-        //         á þrautinni og ef partial er satt einnig þeim öðrum
-        //         borðum sem verða til í leit að lausn.
-        private MyIterator( String[] board, boolean partial )
+        //         á þrautinni í spec, með þeirri leitarvél og þeim
+        //         stillingum sem spec tilgreinir.  Leitin getur verið
+        //         komin allt að spec.capacity lausnum fram úr þeim sem
+        //         sækir lausnirnar.
+        private MyIterator( MyIterable spec )
         {
+            queue = new SolutionQueue(spec.capacity);
             Runnable r =
                 ()->
                 {
                     try
                     {
-                        Pento[][] a = generateAll();
-                        boolean[] used = new boolean[12];
-                        for( int i=0 ; i!=12 ; i++ ) used[i] = false;
-                        generateSolutions(a,makeBoard(board),used,MyIterator.this,partial);
-                        MyIterator.this.put(new String[1]);
+                        spec.search(queue,progress);
+                        queue.finish(null);
                     }
-                    catch( InterruptedException e )
+                    catch( Throwable e )
                     {
-                        e.printStackTrace();
+                        queue.finish(e);
                     }
                 };
-            new Thread(r).start();
-        }
-
-        // Notkun: it.put(board);
-        // Fyrir:  it er flakkari sem flakkað hefur yfir núll
-        //         eða fleiri borð innan runu sinna lausna.
-        //         board er næsta lausn sem it ætti að skila.
-        // Eftir:  Flakkarinn hefur tekið við board og mun
-        //         koma þeirri lausn til skila ef beðið er um.
-        private synchronized void put( String[] board )
-            throws InterruptedException
-        {
-            while( hasValue ) this.wait();
-            this.board = board;
-            if( board[0] == null )
-                done = true;
-            else
-                hasValue = true;
-            this.notifyAll();
+            worker = WORKERS.submit(r);
         }
 
         // Notkun: boolean hn = it.hasNext();
         // Fyrir:  it vísar á MyIterator.
         // Eftir:  hn er satt þá og því aðeins að flakkarinn
         //         geti skilað a.m.k. einni enn lausn með
-        //         kalli á next().
-        public synchronized boolean hasNext()
+        //         kalli á next().  Ef beðið er um að þráðurinn sem
+        //         kallar hætti (interrupt) á meðan beðið er eftir
+        //         lausn þá er flakkaranum lokað og hn er ósatt.
+        public boolean hasNext()
         {
+            if( closed ) return false;
             try
             {
-                while( !hasValue && !done ) wait();
-                return !done;
+                return queue.hasNext();
             }
             catch( InterruptedException e )
             {
+                Thread.currentThread().interrupt();
+                close();
                 return false;
             }
         }
@@ -653,13 +793,51 @@ public class Pento
         //         að it geti skilað a.m.k. einni enn lausn.
         // Eftir:  b vísar á nýja lausn sem er næsta lausn í
         //         runu þeirra lausna sem it skilar.
-        public synchronized String[] next()
+        public String[] next()
         {
-            if( done || !hasValue ) throw new Error();
-            String[] res = board;
-            hasValue = false;
-            notifyAll();
-            return res;
+            return queue.next();
+        }
+
+        // Notkun: double f = it.progress();
+        // Fyrir:  it vísar á MyIterator.
+        // Eftir:  f er hlutfall leitartrésins sem leitin hefur lokið við,
+        //         0 <= f <= 1, talið sem hlutfall greina í efstu
+        //         BitSearch.PROGRESS_LEVELS þrepum trésins þar sem hver
+        //         grein telst jafnstór systrum sínum.  f er 1 ef leitinni
+        //         er lokið eða hún stöðvuð.  Með Engine.CHARS og
+        //         Engine.DLX er f 0 þar til leitinni lýkur.
+        public double progress()
+        {
+            if( worker.isDone() ) return 1;
+            return Math.min(progress.sum(),1);
+        }
+
+        // Notkun: long ms = it.remainingMillis();
+        // Fyrir:  it vísar á MyIterator.
+        // Eftir:  ms er mat á því hve margar millisekúndur eru eftir af
+        //         leitinni miðað við progress() og tímann sem liðinn er,
+        //         eða -1 ef engu er lokið enn og því ekkert hægt að meta.
+        public long remainingMillis()
+        {
+            double f = progress();
+            if( f == 0 ) return -1;
+            double ms = (System.nanoTime()-started)/1e6;
+            return Math.round(ms*(1-f)/f);
+        }
+
+        // Notkun: it.close();
+        // Fyrir:  it vísar á MyIterator.
+        // Eftir:  Búið er að biðja leitina sem framleiðir lausnir it
+        //         að hætta, og hún hættir í síðasta lagi í næsta hnút
+        //         leitartrésins.  it skilar engum fleiri lausnum.
+        //         Það gerir ekkert til að loka it oftar en einu sinni.
+        //         Ef annar þráður bíður í it.hasNext() þá skilar það
+        //         ósönnu, líka ef leitin var stöðvuð áður en hún byrjaði.
+        public void close()
+        {
+            closed = true;
+            worker.cancel(true);
+            queue.close();
         }
     }
     
@@ -669,8 +847,28 @@ public class Pento
     {
         private final String[] board;
         private final boolean partial;
+        private Engine engine = Engine.BITS;
+        private int threads = 1;
+        private int capacity = DEFAULT_CAPACITY;
+        private boolean distinct = false;
+        private boolean expand = false;
+        private Branching branching = Branching.FIRST_EMPTY;
+        private int[] copies = null;
+        private int[] prefix = null;
         // Fastayrðing gagna.
         //   board inniheldur þrautina sem verið er að leysa.
+        //   engine er leitarvélin sem flakkararnir nota og threads
+        //   er fjöldi þráða sem leita samhliða.  capacity er fjöldi
+        //   lausna sem leitin má vera komin fram úr flakkaranum.
+        //   Ef distinct er satt er aðeins leitað að lausnum sem eru
+        //   ólíkar að snúningum og speglunum borðsins slepptum, og
+        //   ef expand er einnig satt er hverri þeirra skilað ásamt
+        //   öllum myndum hennar.  branching er reglan sem Engine.BITS
+        //   notar til að velja reit.  Ef copies er null má nota eitt
+        //   eintak af hverjum fimmferningi, annars copies[i] eintök af
+        //   fimmferningi library()[i].  Ef prefix er ekki null þá er
+        //   aðeins leitað í undirtré hnútsins sem prefix lýsir, sjá
+        //   BitSearch.prefix, og i er þá verk sem split skilaði.
 
         // Notkun: MyIterable i = new MyIterable(board);
         // Fyrir:  board er fimmferningaþraut.
@@ -681,13 +879,289 @@ public class Pento
             this.partial = partial;
         }
 
-        // Notkun: Iterator<String[]> it = i.iterator();
+        // Notkun: MyIterable i2 = i.engine(e);
+        // Fyrir:  i er tilvik af MyIterable, e er leitarvél.
+        // Eftir:  Flakkarar sem i skilar héðan í frá nota e.
+        //         i2 vísar á i.
+        public MyIterable engine( Engine e )
+        {
+            this.engine = e;
+            return this;
+        }
+
+        // Notkun: MyIterable i2 = i.parallel(n);
+        // Fyrir:  i er tilvik af MyIterable, n >= 1.
+        // Eftir:  Flakkarar sem i skilar héðan í frá leita samhliða í
+        //         n þráðum ef leitarvélin er Engine.BITS.  Þá koma
+        //         lausnirnar í ótilgreindri röð.  i2 vísar á i.
+        public MyIterable parallel( int n )
+        {
+            if( n < 1 ) throw new Error();
+            this.threads = n;
+            return this;
+        }
+
+        // Notkun: MyIterable i2 = i.buffer(n);
+        // Fyrir:  i er tilvik af MyIterable, n >= 1.
+        // Eftir:  Leitin í flakkara sem i skilar héðan í frá má vera
+        //         komin allt að n lausnum fram úr þeim sem flakkar.
+        //         i2 vísar á i.
+        public MyIterable buffer( int n )
+        {
+            if( n < 1 ) throw new Error();
+            this.capacity = n;
+            return this;
+        }
+
+        // Notkun: MyIterable i2 = i.distinct(expand);
+        // Fyrir:  i er tilvik af MyIterable.
+        // Eftir:  Flakkarar sem i skilar héðan í frá skila aðeins einni
+        //         lausn úr hverjum flokki lausna sem eru snúningar eða
+        //         speglanir hver af annarri undir samhverfum borðsins.
+        //         Ef expand er satt þá er hverri slíkri lausn skilað
+        //         ásamt öllum myndum sínum, svo allar lausnir koma fram,
+        //         en leitin sjálf er samt takmörkuð við einn fulltrúa.
+        //         Leitað er með Engine.BITS.  i2 vísar á i.
+        public MyIterable distinct( boolean expand )
+        {
+            this.distinct = true;
+            this.expand = expand;
+            return this;
+        }
+
+        // Notkun: MyIterable i2 = i.branching(b);
+        // Fyrir:  i er tilvik af MyIterable, b er regla.
+        // Eftir:  Flakkarar sem i skilar héðan í frá velja reitinn sem
+        //         fylltur er næst eftir reglu b ef leitarvélin er
+        //         Engine.BITS.  i2 vísar á i.
+        public MyIterable branching( Branching b )
+        {
+            this.branching = b;
+            return this;
+        }
+
+        // Notkun: MyIterable i2 = i.copies(n);
+        // Fyrir:  i er tilvik af MyIterable, n >= 0.
+        // Eftir:  Lausnir sem flakkarar sem i skilar héðan í frá finna
+        //         nota í mesta lagi n eintök af hverjum fimmferningi, t.d.
+        //         tvö heil sett á 120 reita borði ef n er 2.  Eintök
+        //         sama fimmfernings eru eins, svo hver lausn kemur aðeins
+        //         einu sinni fyrir.  Leitað er með Engine.BITS.  i2 vísar
+        //         á i.
+        public MyIterable copies( int n )
+        {
+            if( n < 0 ) throw new Error();
+            copies = new int[library().length];
+            Arrays.fill(copies,n);
+            return this;
+        }
+
+        // Notkun: MyIterable i2 = i.copies(name,n);
+        // Fyrir:  i er tilvik af MyIterable, name er nafn fimmfernings,
+        //         einn af stöfunum F,I,L,P,N,T,U,V,W,X,Y,Z, og n >= 0.
+        // Eftir:  Lausnir sem flakkarar sem i skilar héðan í frá finna
+        //         nota í mesta lagi n eintök af fimmferningnum name.
+        //         Fjöldi eintaka af öðrum fimmferningum er óbreyttur.
+        //         Leitað er með Engine.BITS.  i2 vísar á i.
+        public MyIterable copies( char name, int n )
+        {
+            Pento[][] a = library();
+            int k = -1;
+            for( int j=0 ; j!=a.length ; j++ )
+                if( a[j][0].getName() == name ) k = j;
+            if( k < 0 || n < 0 ) throw new Error();
+            if( copies == null )
+            {
+                copies = new int[a.length];
+                Arrays.fill(copies,1);
+            }
+            copies[k] = n;
+            return this;
+        }
+
+        // Notkun: i.search(sink,progress);
+        // Fyrir:  sink tekur við lausnum, mögulega úr mörgum þráðum
+        //         í einu ef i leitar samhliða.  progress er null eða
+        //         teljari sem er 0.
+        // Eftir:  Búið er að senda allar lausnir sem i tilgreinir
+        //         í sink.  Ef progress er ekki null og leitað var með
+        //         Engine.BITS þá hefur verið bætt við progress hlutfalli
+        //         hverrar greinar efst í leitartrénu þegar henni lauk,
+        //         sjá BitSearch.track.
+        void search( Sink sink, DoubleAdder progress )
+            throws InterruptedException
+        {
+            Pento[][] a = library();
+            char[][] b = makeBoard(board);
+            if( engine == Engine.BITS || distinct || copies != null || prefix != null )
+            {
+                BitSearch s = bitSearch(a,b,sink);
+                if( progress != null ) s.track(progress);
+                if( threads > 1 )
+                    s.runParallel(threads,SPLIT_LEVELS);
+                else
+                    s.run();
+            }
+            else if( engine == Engine.DLX )
+            {
+                new DancingLinks(a,b,sink,partial).run();
+            }
+            else
+            {
+                boolean[] used = new boolean[12];
+                for( int i=0 ; i!=12 ; i++ ) used[i] = false;
+                generateSolutions(a,b,used,sink,partial);
+            }
+        }
+
+        // Notkun: BitSearch s = i.bitSearch(a,b,sink);
+        // Fyrir:  a er library(), b er borðið í i sem char[][], sink
+        //         tekur við lausnum eða er null.
+        // Eftir:  s er ný leit með Engine.BITS að þeim lausnum sem i
+        //         tilgreinir, sem sendir þær í sink.
+        private BitSearch bitSearch( Pento[][] a, char[][] b, Sink sink )
+        {
+            BitSearch s = new BitSearch(new BitBoard(a,b),sink,partial);
+            if( copies != null ) s.copies(copies);
+            if( branching == Branching.FEWEST_OPTIONS ) s.fewestOptions();
+            if( distinct ) s.distinct(new Symmetry(b),expand);
+            if( prefix != null ) s.prefix(prefix);
+            return s;
+        }
+
+        // Notkun: i.records(sink);
+        // Fyrir:  i tilgreinir hvorki hlutlausnir né aðeins ólíkar
+        //         lausnir.
+        // Eftir:  Búið er að senda allar lausnir sem i tilgreinir í
+        //         sink, í þræðinum sem kallar og í sömu röð og flakkari
+        //         með Engine.BITS í einum þræði skilar þeim, sem númer
+        //         staðsetninga í BitBoard fyrir þrautina.  Engin borð
+        //         eru búin til fyrir lausnirnar.
+        void records( RecordSink sink )
+            throws InterruptedException
+        {
+            if( partial || distinct ) throw new Error();
+            BitSearch s = bitSearch(library(),makeBoard(board),null);
+            s.records(sink);
+            s.run();
+        }
+
+        // Notkun: long n = i.count();
+        // Fyrir:  i tilgreinir ekki hlutlausnir.
+        // Eftir:  n er fjöldi lausna sem flakkarar sem i skilar myndu
+        //         skila.  Talið er í þræðinum sem kallar, án þess að búa
+        //         til borð fyrir lausnirnar.
+        public long count()
+        {
+            if( partial ) throw new Error();
+            return bitSearch(library(),makeBoard(board),null).count(Long.MAX_VALUE);
+        }
+
+        // Notkun: List<String> jobs = i.split(depth);
+        // Fyrir:  i tilgreinir ekki hlutlausnir og er ekki sjálft verk,
+        //         depth >= 0.
+        // Eftir:  jobs eru lýsingar á sjálfstæðum verkum, eitt fyrir
+        //         hvern hnút á dýpt depth í leitartrénu, sem saman finna
+        //         allar lausnir i, hverja einu sinni.  Ef lausnum hvers
+        //         verks er raðað í röð jobs fæst sama röð og flakkari
+        //         með Engine.BITS í einum þræði skilar.  Hver lýsing er
+        //         texti, sjá job(), og má leysa hana á annarri vél með
+        //         Pento.job(lýsing).
+        public List<String> split( int depth )
+        {
+            if( partial || prefix != null || depth < 0 ) throw new Error();
+            List<String> res = new ArrayList<String>();
+            for( int[] p: bitSearch(library(),makeBoard(board),null).split(depth) ) res.add(job(p));
+            return res;
+        }
+
+        // Notkun: String d = i.job(p);
+        // Fyrir:  p er leið í leitartré i.
+        // Eftir:  d er lýsing verksins sem leitar í undirtré hnútsins p,
+        //         ein lína fyrir hvert atriði:
+        //            pentosolver job
+        //            copies <fjöldi eintaka af hverjum fimmferningi>
+        //            branching <FIRST_EMPTY eða FEWEST_OPTIONS>
+        //            symmetry <all, distinct eða expand>
+        //            prefix <númer staðsetninganna á leiðinni>
+        //            board
+        //         og síðan línur borðsins.
+        private String job( int[] p )
+        {
+            StringBuilder d = new StringBuilder("pentosolver job\ncopies");
+            for( int i=0 ; i!=library().length ; i++ ) d.append(' ').append(copies == null ? 1 : copies[i]);
+            d.append("\nbranching ").append(branching);
+            d.append("\nsymmetry ").append(!distinct ? "all" : expand ? "expand" : "distinct");
+            d.append("\nprefix");
+            for( int k: p ) d.append(' ').append(k);
+            d.append("\nboard\n");
+            for( String line: board ) d.append(line).append('\n');
+            return d.toString();
+        }
+
+        // Notkun: long n = i.enumerate(file,millis,consumed,action);
+        // Fyrir:  i tilgreinir ekki hlutlausnir, millis >= 0, file er
+        //         slóð í möppu sem er til.  consumed er fjöldi lausna
+        //         sem action hefur þegar tekið við og geymt varanlega í
+        //         fyrri köllum með sama file, 0 í fyrsta kalli.  Hann er
+        //         ekki minni en fjöldinn sem vistunin í file telur.
+        // Eftir:  Búið er að kalla á action.accept(b), í þræðinum sem
+        //         kallar, fyrir hverja lausn b sem i tilgreinir, nema
+        //         þær consumed fyrstu, og n er heildarfjöldi lausnanna.
+        //         Ef action er null eru lausnirnar aðeins taldar.
+        //         Staða leitarinnar er vistuð í file á u.þ.b. millis
+        //         millisekúndna fresti, og þegar leitinni lýkur.  Ef
+        //         file inniheldur vistun frá fyrra kalli, sem stöðvaðist
+        //         t.d. vegna villu eða endurræsingar, þá heldur leitin
+        //         áfram þaðan og hleypur yfir þær lausnir sem fundust
+        //         eftir vistunina en action hafði þegar tekið við, og ef
+        //         henni var lokið er n skilað strax.  Sá sem telur
+        //         lausnirnar sem hann hefur geymt fær því hverja lausn
+        //         nákvæmlega einu sinni.
+        //         Leitað er með Engine.BITS í einum þræði, óháð
+        //         stillingum um leitarvél og fjölda þráða.  Ef file er
+        //         vistun annarrar leitar er IOException kastað.
+        public long enumerate( Path file, long millis, long consumed, Consumer<String[]> action )
+            throws IOException, InterruptedException
+        {
+            if( partial || millis < 0 || consumed < 0 ) throw new Error();
+            StringBuilder key = new StringBuilder();
+            for( String line: board ) key.append(line).append('\n');
+            key.append(Arrays.toString(copies)).append(' ').append(branching);
+            if( distinct ) key.append(expand ? " expand" : " distinct");
+            if( prefix != null ) key.append(" prefix ").append(Arrays.toString(prefix));
+            Checkpoint c = Checkpoint.read(file);
+            if( c != null && !c.key.equals(key.toString()) )
+                throw new IOException(file+" is a checkpoint of another search");
+            if( c != null && c.done ) return c.solutions;
+            long[] skip = { consumed-(c == null ? 0 : c.solutions) };
+            if( skip[0] < 0 ) throw new Error();
+            Sink sink = null;
+            if( action != null )
+                sink = b -> { if( skip[0] > 0 ) skip[0]--; else action.accept(b); };
+            Pento[][] a = library();
+            BitSearch s = bitSearch(a,makeBoard(board),sink);
+            s.checkpoints(file,key.toString(),millis);
+            if( c != null ) s.resume(c);
+            try
+            {
+                s.run();
+            }
+            catch( UncheckedIOException e )
+            {
+                throw e.getCause();
+            }
+            new Checkpoint(key.toString(),new int[0],new int[a.length],s.solutions(),true).write(file);
+            return s.solutions();
+        }
+
+        // Notkun: MyIterator it = i.iterator();
         // Fyrir:  i er tilvik af MyIterable.
         // Eftir:  it er flakkari sem skilar öllum lausnum
         //         á fimmferningaþrautinni sem i leysir.
-        public Iterator<String[]> iterator()
+        public MyIterator iterator()
         {
-            return new MyIterator(board,partial);
+            return new MyIterator(this);
         }
     }
     
@@ -716,6 +1190,9 @@ public class Pento
     //                for( String s: b ) System.out.println(s);
     //                System.out.println();
     //            }
+    //         Sjálfgefið er leitað með Engine.BITS, en velja má aðra
+    //         leitarvél svona:
+    //            makeSolutions(board).engine(Engine.CHARS)
     public static MyIterable makeSolutions( String... board )
     {
         return new MyIterable(board,false);
@@ -732,7 +1209,86 @@ public class Pento
     {
         return new MyIterable(board,true);
     }
+
+    // Notkun: MyIterable i = Pento.job(d);
+    // Fyrir:  d er lýsing verks sem MyIterable.split skilaði.
+    // Eftir:  i er flakkanlegt safn þeirra lausna sem verkið d finnur,
+    //         í sömu röð og í upphaflegu leitinni.  Ef d er ekki lögleg
+    //         lýsing er IllegalArgumentException kastað.
+    public static MyIterable job( String d )
+    {
+        String[] lines = d.split("\r?\n");
+        int n = library().length;
+        if( lines.length < 6 || !lines[0].equals("pentosolver job") || !lines[5].equals("board") )
+            throw new IllegalArgumentException("not a job description");
+        try
+        {
+            MyIterable res = new MyIterable(Arrays.copyOfRange(lines,6,lines.length),false);
+            String[] c = field(lines[1],"copies");
+            if( c.length != n ) throw new IllegalArgumentException("copies");
+            res.copies = new int[n];
+            for( int i=0 ; i!=n ; i++ ) res.copies[i] = Integer.parseInt(c[i]);
+            res.branching = Branching.valueOf(field(lines[2],"branching")[0]);
+            String sym = field(lines[3],"symmetry")[0];
+            if( !sym.equals("all") ) res.distinct(sym.equals("expand"));
+            String[] p = field(lines[4],"prefix");
+            res.prefix = new int[p.length];
+            for( int i=0 ; i!=p.length ; i++ ) res.prefix[i] = Integer.parseInt(p[i]);
+            return res;
+        }
+        catch( NumberFormatException | ArrayIndexOutOfBoundsException e )
+        {
+            throw new IllegalArgumentException("not a job description",e);
+        }
+    }
+
+    // Notkun: String[] v = field(line,name);
+    // Fyrir:  line er lína í lýsingu verks.
+    // Eftir:  v eru orðin í line á eftir nafninu name.  Ef line byrjar
+    //         ekki á name er IllegalArgumentException kastað.
+    private static String[] field( String line, String name )
+    {
+        String[] w = line.trim().split(" +");
+        if( !w[0].equals(name) ) throw new IllegalArgumentException(name);
+        return Arrays.copyOfRange(w,1,w.length);
+    }
     
+    // Notkun: long n = countSolutions(board);
+    // Fyrir:  board er strengjafylki og ekkert sæti inniheldur null.
+    // Eftir:  n er fjöldi lausna á þrautinni board, þ.e. fjöldi þeirra
+    //         borða sem makeSolutions(board) skilar.
+    // Ath.:   Lausnirnar eru taldar í þræðinum sem kallar, án þess að
+    //         búa til borð fyrir hverja lausn.
+    public static long countSolutions( String... board )
+    {
+        return countSolutions(Long.MAX_VALUE,board);
+    }
+
+    // Notkun: int n = Pento.sets(board);
+    // Fyrir:  board er strengjafylki og ekkert sæti inniheldur null.
+    // Eftir:  n er fjöldi heilla setta af fimmferningum sem fylla auðu
+    //         reitina í board, þ.e. fjöldi auðra reita deilt með 60, en
+    //         þó a.m.k. 1.
+    static int sets( String... board )
+    {
+        int empty = 0;
+        for( String line: board )
+            for( int i=0 ; i!=line.length() ; i++ )
+                if( line.charAt(i) == ' ' ) empty++;
+        return Math.max(empty/60,1);
+    }
+
+    // Notkun: long n = countSolutions(limit,board);
+    // Fyrir:  board er strengjafylki og ekkert sæti inniheldur null,
+    //         limit >= 0.
+    // Eftir:  n er fjöldi lausna á þrautinni board, eða limit ef
+    //         lausnirnar eru limit eða fleiri.  Leitin hættir um leið
+    //         og limit lausnir eru fundnar.
+    public static long countSolutions( long limit, String... board )
+    {
+        return new BitSearch(new BitBoard(library(),makeBoard(board)),null,false).count(limit);
+    }
+
     public static void main( String[] args )
         throws InterruptedException
     {
@@ -3,20 +3,45 @@ package is.ingimarsson.pentosolver;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.beans.*;
+import java.awt.image.BufferedImage;
 import java.util.Random;
 
 public class PentoComponent extends JComponent {
     // Fastayrðing gagna
     //
-    // Núverandi fimmferningur er geymdur í board breytunni,
+    // Núverandi fimmferningur er geymdur í líkaninu model,
     // á því formi sem Pento klasinn tilgreinir. Stærð borðsins
-    // í reitum er geymd sem heiltölur í height og width.
-    String[] board;
+    // á skjánum í punktum er geymd sem heiltölur í height og width.
+    //
+    // image er null eða mynd af borðinu í model í fullri stærð.
+    // Þegar reit í model er breytt er hann teiknaður aftur í image.
+    BoardModel model;
 
     int height = 0;
     int width = 0;
 
+    BufferedImage image;
+
+    // Litur hvers fimmferningsins og frátekinna reita, í sæti
+    // stafsins sem táknar hann. Aðrir reitir eru hvítir.
+    private static final Color[] PALETTE = new Color[128];
+
+    static {
+        PALETTE['F'] = new Color(50,100,150);
+        PALETTE['I'] = new Color(0,0,80);
+        PALETTE['L'] = new Color(0,100,80);
+        PALETTE['P'] = new Color(0,100,200);
+        PALETTE['N'] = new Color(0,200,150);
+        PALETTE['T'] = new Color(80,100,0);
+        PALETTE['U'] = new Color(80,100,150);
+        PALETTE['V'] = new Color(80,200,50);
+        PALETTE['W'] = new Color(80,200,250);
+        PALETTE['X'] = new Color(160,0,150);
+        PALETTE['Y'] = new Color(160,0,0);
+        PALETTE['Z'] = new Color(160,100,200);
+        PALETTE['*'] = Color.GRAY;
+    }
+
     // Notkun: PentoComponent c = new PentoComponent();
     // Fyrir:  Ekkert.
     // Eftir:  c er afbrigði af JComponent sem teiknar fimmferning,
@@ -25,20 +50,28 @@ public class PentoComponent extends JComponent {
         this.width = w;
         this.height = h;
 
-        this.setBoard(new String[] {""});
+        this.model = new BoardModel(new String[] {""});
 
         PentoComponent thisPento = this;
-        this.addPropertyChangeListener(new PropertyChangeListener() {
-            public void propertyChange(PropertyChangeEvent e) {
-                String propertyName = e.getPropertyName();
-                if("board".equals(propertyName)) {
-                    thisPento.repaint();
-                }
-   
+        this.model.addListener(new BoardModel.Listener() {
+            public void cellChanged(int x, int y) {
+                thisPento.redrawCell(x, y);
+            }
+
+            public void boardChanged() {
+                thisPento.image = null;
+                thisPento.repaint();
             }
         });
     }
 
+    // Notkun: BoardModel m = c.getModel();
+    // Fyrir:  c er PentoComponent
+    // Eftir:  m er líkanið sem c birtir. Breytingar á m birtast í c.
+    public BoardModel getModel() {
+        return this.model;
+    }
+
     // Notkun: c.setBoard(String[] b)
     // Fyrir:  c er PentoComponent og b er borð framsett sem fylki
     //         strengja þar sem hver strengur er hver lína í borðinu,
@@ -46,32 +79,31 @@ public class PentoComponent extends JComponent {
     //         fyrir frátekið bil eða stafina FILPNTUVWXYZ sem tákna
     //         einhvern af 12 mismunandi fimmferninguum
     // Eftir:  PentoComponent c birtir nýja borðið b.
+    //         Ef b er jafnstórt og fyrra borð eru aðeins þeir reitir
+    //         teiknaðir aftur sem hafa breyst.
     public void setBoard(String[] b) {
-        //this.firePropertyChange("board", this.board, b);
-
-        this.board = b;
-        this.repaint();
+        this.model.setAll(b);
     }
 
     // Notkun: String[] b = c.getBoard();
     // Fyrir:  c er PentoComponent
-    // Eftir:  b er núverandi borð
+    // Eftir:  b er nýtt fylki með núverandi borði
     public String[] getBoard() {
-        return this.board;
+        return this.model.toStrings();
     }
 
     // Notkun: c.emptyBoard()
     // Fyrir:  c er PentoComponent
     // Eftir:  Búið er að núllstilla borðið í c með einum tómum reit.
     public void emptyBoard() {
-        this.setBoard(new String[]{" "});
+        this.model.clear(1, 1);
     }
 
     // Notkun: char block = c.getBlock(int x, int y)
     // Fyrir:  c er PentoComponent, x og y eru jákvæðar heiltölur.
     // Eftir:  block er sá bókstafur sem er í reit (x,y) á borðinu í c.
     public char getBlock(int x, int y) {
-        return this.board[y].charAt(x);
+        return this.model.get(x, y);
     }
 
     // Notkun: c.setBlock(int x, int y, char block)
@@ -80,21 +112,7 @@ public class PentoComponent extends JComponent {
     // Eftir:  PentoComponent c birtir nýtt borð með bókstafinn block
     //         í reit (x,y)
     public void setBlock(int x, int y, char block) {
-        String[] b = this.getBoard();
-
-        char[] changedLine = b[y].toCharArray();
-        changedLine[x] = block;
-
-        b[y] = String.valueOf(changedLine);
-
-        this.setBoard(b);
-        this.repaint();
-        
-        /*
-        for (int i=0; i<b.length; i++) {
-            System.out.println(b[i]);
-        }
-        */
+        this.model.set(x, y, block);
     }
 
     // Notkun: c.generateRandom()
@@ -103,24 +121,7 @@ public class PentoComponent extends JComponent {
     //         en með handahófskennt auða og fyllta reiti þar sem 
     //         líkurnar á að reitur sé fylltur eru 25%.
     public void generateRandom() {
-        String[] b = new String[this.board.length];
-        char[] line = new char[this.board[0].length()];
-
-        for (int i=0; i<b.length; i++) {
-            for (int j=0; j<line.length; j++) {
-                if (Math.random() < 0.25) {
-                    line[j] = '*';
-                }
-                else {
-                    line[j] = ' ';
-                }
-            }
-
-            b[i] = String.valueOf(line);
-        }
-
-        this.setBoard(b);
-        this.repaint();
+        this.model.randomize(new Random(), 0.25);
     }
 
     // Notkun: int empty = c.countEmpty()
@@ -128,84 +129,113 @@ public class PentoComponent extends JComponent {
     // Eftir:  empty er jákvæð heiltala sem segir hve margir reitir í
     //         borðinu í c eru auðir, þ.e. innihalda bil.
     public int countEmpty() {
-        int n = 0;
-
-        for (String line : this.board) {
-            for (char c : line.toCharArray()) {
-                if (c==' ') n++;
-            }
-        }
+        return this.model.countEmpty();
+    }
 
-        return n;
+    // Notkun: c.redrawCell(x, y)
+    // Fyrir:  c er PentoComponent, reit (x,y) í model var breytt
+    // Eftir:  Reiturinn hefur verið teiknaður aftur í image, ef hún
+    //         er til, og sá hluti c beðinn um að teiknast aftur.
+    private void redrawCell(int x, int y) {
+        if (this.image == null) return;
+
+        Graphics2D g = this.image.createGraphics();
+        this.drawCell(g, x, y, this.model.get(x, y));
+        g.dispose();
+        this.repaint(cellX(x), cellY(y), cellX(x+1)-cellX(x), cellY(y+1)-cellY(y));
     }
 
+    // Notkun: c.paintComponent(g)
+    // Fyrir:  c er PentoComponent, g er Graphics hlutur
+    // Eftir:  Borðið í c hefur verið teiknað með g. Mynd af borðinu
+    //         er teiknuð í image ef hún er ekki til og síðan afrituð.
     @Override
     public void paintComponent( Graphics g ) {
         super.paintComponent(g);
 
-        g.setColor(Color.RED);
-        int x = 0;
-        int y = 0;
-
-        int blockWidth = this.width/this.board[0].length();
-        int blockHeight = this.height/this.board.length;
-
-        for (String line : this.getBoard()) {
-          for (char ch : line.toCharArray()) {
-              // Hér skilgreinum við ólíka liti fyrir hvern fimmferning
-              switch (ch) {
-                  case 'F':
-                      g.setColor(new Color(50,100,150));
-                      break;
-                  case 'I':
-                      g.setColor(new Color(0,0,80));
-                      break;
-                  case 'L':
-                      g.setColor(new Color(0,100,80));
-                      break;
-                  case 'P':
-                      g.setColor(new Color(0,100,200));
-                      break;
-                  case 'N':
-                      g.setColor(new Color(0,200,150));
-                      break;
-                  case 'T':
-                      g.setColor(new Color(80,100,0));
-                      break;
-                  case 'U':
-                      g.setColor(new Color(80,100,150));
-                      break;
-                  case 'V':
-                      g.setColor(new Color(80,200,50));
-                      break;
-                  case 'W':
-                      g.setColor(new Color(80,200,250));
-                      break;
-                  case 'X':
-                      g.setColor(new Color(160,0,150));
-                      break;
-                  case 'Y':
-                      g.setColor(new Color(160,0,0));
-                      break;
-                  case 'Z':
-                      g.setColor(new Color(160,100,200));
-                      break;
-                  case '*':
-                      g.setColor(Color.GRAY);
-                      break;
-                  default:
-                      g.setColor(Color.WHITE);
-              }
-              g.fillRect(x,y,blockWidth,blockHeight);
-              g.draw3DRect(x,y,blockWidth,blockHeight,false);
-              x = x+blockWidth;
-          }
-          x = 0;
-          y = y+blockHeight;
+        if (this.image == null) {
+            this.renderAll();
         }
+        g.drawImage(this.image, 0, 0, null);
 
         // Teiknum ramma utan um borðið
         g.setColor(Color.BLACK);
         g.draw3DRect(0, 0, this.width-1, this.height-1, false);
     }
+
+    // Notkun: c.renderAll()
+    // Fyrir:  c er PentoComponent
+    // Eftir:  image er ný mynd af öllu borðinu í model.
+    //         Ef reitirnir eru of litlir fyrir kant eru samliggjandi
+    //         reitir af sama tagi í línu teiknaðir í einu lagi.
+    private void renderAll() {
+        this.image = new BufferedImage(Math.max(this.width,1), Math.max(this.height,1), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = this.image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, this.width, this.height);
+
+        int rows = this.model.rows();
+        int cols = this.model.cols();
+
+        for (int y=0; y<rows; y++) {
+            if (cols != 0 && (this.width/cols < 4 || this.height/rows < 4)) {
+                int x = 0;
+                while (x < cols) {
+                    char ch = this.model.get(x, y);
+                    int end = x+1;
+                    while (end < cols && this.model.get(end, y) == ch) end++;
+                    g.setColor(colorOf(ch));
+                    g.fillRect(cellX(x), cellY(y), cellX(end)-cellX(x), cellY(y+1)-cellY(y));
+                    x = end;
+                }
+            }
+            else {
+                for (int x=0; x<cols; x++) {
+                    this.drawCell(g, x, y, this.model.get(x, y));
+                }
+            }
+        }
+
+        g.dispose();
+    }
+
+    // Notkun: c.drawCell(g, x, y, ch)
+    // Fyrir:  c er PentoComponent, g teiknar í image
+    // Eftir:  Reitur (x,y) hefur verið teiknaður með lit ch í g, með
+    //         upphleyptum kanti ef hann er nógu stór fyrir kant.
+    private void drawCell(Graphics2D g, int x, int y, char ch) {
+        int x0 = cellX(x);
+        int y0 = cellY(y);
+        int w = cellX(x+1)-x0;
+        int h = cellY(y+1)-y0;
+
+        g.setColor(colorOf(ch));
+        g.fillRect(x0, y0, w, h);
+        if (w >= 4 && h >= 4) {
+            g.draw3DRect(x0, y0, w-1, h-1, false);
+        }
+    }
+
+    // Notkun: int px = c.cellX(x)
+    // Fyrir:  c er PentoComponent með borð sem er a.m.k. einn dálkur
+    // Eftir:  px er vinstri brún dálks x á skjánum, og cellX(dálkar)
+    //         er breidd c
+    private int cellX(int x) {
+        return x*this.width/this.model.cols();
+    }
+
+    // Notkun: int py = c.cellY(y)
+    // Fyrir:  c er PentoComponent með borð sem er a.m.k. ein lína
+    // Eftir:  py er efri brún línu y á skjánum, og cellY(línur) er
+    //         hæð c
+    private int cellY(int y) {
+        return y*this.height/this.model.rows();
+    }
+
+    // Notkun: Color col = colorOf(ch)
+    // Fyrir:  Ekkert.
+    // Eftir:  col er liturinn sem reitur með stafnum ch er teiknaður með
+    private static Color colorOf(char ch) {
+        return ch < PALETTE.length && PALETTE[ch] != null ? PALETTE[ch] : Color.WHITE;
+    }
 }
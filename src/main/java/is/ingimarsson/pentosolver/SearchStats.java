@@ -0,0 +1,339 @@
+package is.ingimarsson.pentosolver;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+// SearchStats safnar mælingum á leitarvélunum: fjölda hnúta, reyndra
+// og heppnaðra staðsetninga, bakkana, lausna, dýptardreifingu hnúta
+// og tímann sem leit og flakkari bíða hvort eftir öðru í SolutionQueue.
+//
+// Aðeins er mælt ef forritið er ræst með -Dpentosolver.stats=true.
+// ON er þá lesið einu sinni þegar klasinn er hlaðinn og er final, svo
+// þýðandinn í JVM fjarlægir allar mælingarnar, sem eru allar á forminu
+// if( SearchStats.ON ) ..., þegar slökkt er á þeim.
+//
+// Hver leit telur í eigin Counters hlut, án samstillingar, og bætir
+// tölunum við samtölurnar hér á FLUSH_NODES hnúta fresti, svo þær sjást
+// á meðan löng leit er í gangi, og þegar henni lýkur.  Samtölurnar eru
+// birtar sem JMX MBean undir is.ingimarsson.pentosolver:type=SearchStats.
+// Auk þess er sendur JFR atburður (is.ingimarsson.pentosolver.Search)
+// fyrir hverja leit með tölum hennar, leitarvél og fjölda auðra reita,
+// og atburður (is.ingimarsson.pentosolver.Handoff) í hvert sinn sem
+// leit eða flakkari bíður lengur en 10 ms.  Þeir sjást í upptökum
+// sem gerðar eru t.d. með -XX:StartFlightRecording.
+
+public final class SearchStats implements SearchStatsMBean
+{
+    static final boolean ON = Boolean.getBoolean("pentosolver.stats");
+    static final int DEPTHS = 64;
+    static final int FLUSH_NODES = 4096;
+    private static final SearchStats INSTANCE = new SearchStats();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder tried = new LongAdder();
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder backtracks = new LongAdder();
+    private final LongAdder solutions = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder producerNanos = new LongAdder();
+    private final LongAdder consumerNanos = new LongAdder();
+    private final AtomicLongArray depth = new AtomicLongArray(DEPTHS);
+    // Fastayrðing gagna.
+    //  Tölurnar eru samtölur þess sem Counters hlutir hafa talið síðan
+    //  síðast var kallað á reset(), searches er fjöldi leita sem lokið
+    //  er og searchNanos er samanlagður tími þeirra.  producerNanos og consumerNanos eru samanlagður
+    //  biðtími framleiðenda og neytenda í SolutionQueue.
+
+    static
+    {
+        if( ON )
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    INSTANCE,new ObjectName("is.ingimarsson.pentosolver:type=SearchStats"));
+            }
+            catch( Exception e )
+            {
+                throw new Error(e);
+            }
+        }
+    }
+
+    private SearchStats()
+    {
+    }
+
+    // Notkun: SearchStats s = SearchStats.get();
+    // Fyrir:  Ekkert.
+    // Eftir:  s er hluturinn sem heldur utan um samtölurnar.
+    public static SearchStats get()
+    {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled()
+    {
+        return ON;
+    }
+
+    public long getSearches()
+    {
+        return searches.sum();
+    }
+
+    public long getNodes()
+    {
+        return nodes.sum();
+    }
+
+    public long getPlacementsTried()
+    {
+        return tried.sum();
+    }
+
+    public long getPlacementsSucceeded()
+    {
+        return placed.sum();
+    }
+
+    public long getBacktracks()
+    {
+        return backtracks.sum();
+    }
+
+    public long getSolutions()
+    {
+        return solutions.sum();
+    }
+
+    public double getSolutionsPerSecond()
+    {
+        long t = searchNanos.sum();
+        return t == 0 ? 0 : solutions.sum()*1e9/t;
+    }
+
+    public long[] getDepthHistogram()
+    {
+        long[] res = new long[DEPTHS];
+        for( int d=0 ; d!=DEPTHS ; d++ ) res[d] = depth.get(d);
+        return res;
+    }
+
+    public long getProducerBlockedMillis()
+    {
+        return producerNanos.sum()/1000000;
+    }
+
+    public long getConsumerBlockedMillis()
+    {
+        return consumerNanos.sum()/1000000;
+    }
+
+    public void reset()
+    {
+        for( LongAdder a: new LongAdder[]{ searches, nodes, tried, placed, backtracks, solutions, searchNanos, producerNanos, consumerNanos } )
+            a.reset();
+        for( int d=0 ; d!=DEPTHS ; d++ ) depth.set(d,0);
+    }
+
+    // Notkun: HandoffEvent e = SearchStats.waiting(producer);
+    // Fyrir:  ON er satt, núverandi þráður er í þann mund að bíða í
+    //         SolutionQueue, sem framleiðandi ef producer er satt en
+    //         annars sem neytandi.
+    // Eftir:  e er nýr atburður sem byrjaði núna.  Kalla skal á
+    //         waited(e) þegar biðinni lýkur.
+    static HandoffEvent waiting( boolean producer )
+    {
+        HandoffEvent e = new HandoffEvent();
+        e.producer = producer;
+        e.start = System.nanoTime();
+        e.begin();
+        return e;
+    }
+
+    // Notkun: SearchStats.waited(e);
+    // Fyrir:  e kom úr waiting og biðinni er lokið.
+    // Eftir:  Biðtímanum hefur verið bætt við samtölurnar og e sent
+    //         í JFR ef biðin var nógu löng.
+    static void waited( HandoffEvent e )
+    {
+        long t = System.nanoTime()-e.start;
+        (e.producer ? INSTANCE.producerNanos : INSTANCE.consumerNanos).add(t);
+        e.commit();
+    }
+
+    // Tilvik af Counters telja mælingar einnar leitar í einum þræði.
+    // Leitarvélarnar uppfæra svæðin beint og kalla á begin og end
+    // utan um leitina.
+    static final class Counters
+    {
+        final String engine;
+        final int cells;
+        long nodes, tried, placed, backtracks, solutions;
+        final long[] depth = new long[DEPTHS];
+        private long flushedNodes, flushedTried, flushedPlaced, flushedBacktracks, flushedSolutions;
+        private int tick = FLUSH_NODES;
+        private long start;
+        private SearchEvent event;
+        // Fastayrðing gagna.
+        //  Leitin er með vélinni engine á borði með cells auðum reitum.
+        //  Tölurnar eiga við leitina frá síðasta kalli á begin; depth[d]
+        //  er fjöldi hnúta á dýpt d, eða d eða dýpra ef d er DEPTHS-1,
+        //  sem ekki hefur enn verið bætt við samtölurnar.  Búið er að
+        //  bæta flushedNodes af nodes við samtölurnar, og eins með hinar
+        //  tölurnar.  tick er fjöldi hnúta þar til því sem á vantar
+        //  verður bætt við.
+
+        // Notkun: Counters c = new Counters(engine,cells);
+        // Fyrir:  engine er nafn leitarvélar, cells er fjöldi auðra
+        //         reita í þrautinni.
+        // Eftir:  c er nýr teljari með öllum tölum núll.
+        Counters( String engine, int cells )
+        {
+            this.engine = engine;
+            this.cells = cells;
+        }
+
+        // Notkun: c.begin();
+        // Fyrir:  ON er satt.
+        // Eftir:  Leit er að hefjast og tími hennar er mældur héðan.
+        void begin()
+        {
+            start = System.nanoTime();
+            event = new SearchEvent();
+            event.begin();
+        }
+
+        // Notkun: c.node(d);
+        // Fyrir:  ON er satt, d >= 0.
+        // Eftir:  Búið er að telja einn hnút á dýpt d.
+        void node( int d )
+        {
+            nodes++;
+            depth[Math.min(d,DEPTHS-1)]++;
+            if( --tick == 0 ) flush();
+        }
+
+        // Notkun: c.flush();
+        // Fyrir:  ON er satt.
+        // Eftir:  Það sem c hefur talið hefur verið bætt við samtölurnar,
+        //         án þess að telja leitina, svo þær sjást á meðan leitað
+        //         er.  Tölur c eru óbreyttar, nema depth, sem er núll.
+        synchronized void flush()
+        {
+            SearchStats s = INSTANCE;
+            s.nodes.add(nodes-flushedNodes);
+            s.tried.add(tried-flushedTried);
+            s.placed.add(placed-flushedPlaced);
+            s.backtracks.add(backtracks-flushedBacktracks);
+            s.solutions.add(solutions-flushedSolutions);
+            for( int d=0 ; d!=DEPTHS ; d++ )
+            {
+                if( depth[d] != 0 ) s.depth.addAndGet(d,depth[d]);
+                depth[d] = 0;
+            }
+            flushedNodes = nodes;
+            flushedTried = tried;
+            flushedPlaced = placed;
+            flushedBacktracks = backtracks;
+            flushedSolutions = solutions;
+            tick = FLUSH_NODES;
+        }
+
+        // Notkun: c.add(d);
+        // Fyrir:  ON er satt, d er annar teljari sem ekki er í notkun.
+        // Eftir:  Tölum d hefur verið bætt við tölur c, án þess að telja
+        //         nýja leit, og allar tölur í d eru núll.  Það sem d hafði
+        //         þegar bætt við samtölurnar telst bætt við þær af c.
+        //         Margir þræðir mega kalla á add fyrir sama c samtímis.
+        synchronized void add( Counters d )
+        {
+            nodes += d.nodes;
+            tried += d.tried;
+            placed += d.placed;
+            backtracks += d.backtracks;
+            solutions += d.solutions;
+            flushedNodes += d.flushedNodes;
+            flushedTried += d.flushedTried;
+            flushedPlaced += d.flushedPlaced;
+            flushedBacktracks += d.flushedBacktracks;
+            flushedSolutions += d.flushedSolutions;
+            for( int k=0 ; k!=DEPTHS ; k++ )
+            {
+                depth[k] += d.depth[k];
+                d.depth[k] = 0;
+            }
+            d.nodes = d.tried = d.placed = d.backtracks = d.solutions = 0;
+            d.flushedNodes = d.flushedTried = d.flushedPlaced = d.flushedBacktracks = d.flushedSolutions = 0;
+        }
+
+        // Notkun: c.end();
+        // Fyrir:  ON er satt og búið er að kalla á c.begin().
+        // Eftir:  Því sem eftir var af tölum leitarinnar hefur verið bætt
+        //         við samtölurnar, leitin talin og tölur hennar sendar í
+        //         JFR.  Allar tölur í c eru núll aftur.
+        synchronized void end()
+        {
+            SearchStats s = INSTANCE;
+            flush();
+            s.searches.increment();
+            s.searchNanos.add(System.nanoTime()-start);
+            if( event.shouldCommit() )
+            {
+                event.engine = engine;
+                event.cells = cells;
+                event.nodes = nodes;
+                event.tried = tried;
+                event.placed = placed;
+                event.backtracks = backtracks;
+                event.solutions = solutions;
+                event.commit();
+            }
+            event = null;
+            nodes = tried = placed = backtracks = solutions = 0;
+            flushedNodes = flushedTried = flushedPlaced = flushedBacktracks = flushedSolutions = 0;
+        }
+    }
+
+    @Name("is.ingimarsson.pentosolver.Search")
+    @Label("Pentomino Search")
+    @Category("Pentosolver")
+    static final class SearchEvent extends Event
+    {
+        @Label("Engine")
+        String engine;
+        @Label("Empty Cells")
+        int cells;
+        @Label("Nodes")
+        long nodes;
+        @Label("Placements Tried")
+        long tried;
+        @Label("Placements Succeeded")
+        long placed;
+        @Label("Backtracks")
+        long backtracks;
+        @Label("Solutions")
+        long solutions;
+    }
+
+    @Name("is.ingimarsson.pentosolver.Handoff")
+    @Label("Solution Handoff Wait")
+    @Category("Pentosolver")
+    @Threshold("10 ms")
+    static final class HandoffEvent extends Event
+    {
+        @Label("Producer")
+        boolean producer;
+        transient long start;
+    }
+}
@@ -0,0 +1,62 @@
+package is.ingimarsson.pentosolver;
+
+// Viðmót SearchStats eins og það birtist í JMX, t.d. í JConsole eða
+// VisualVM undir is.ingimarsson.pentosolver:type=SearchStats.  Allar
+// tölur eru samtölur yfir allar leitir frá ræsingu eða síðasta reset().
+public interface SearchStatsMBean
+{
+    // Notkun: boolean on = s.isEnabled();
+    // Eftir:  on er satt þá og því aðeins að kveikt sé á mælingum,
+    //         þ.e. forritið var ræst með -Dpentosolver.stats=true.
+    boolean isEnabled();
+
+    // Notkun: long n = s.getSearches();
+    // Eftir:  n er fjöldi leita sem lokið er.  Samhliða leit telst
+    //         sem eitt verk fyrir hvert undirtré.
+    long getSearches();
+
+    // Notkun: long n = s.getNodes();
+    // Eftir:  n er fjöldi hnúta leitartrésins sem heimsóttir hafa verið.
+    long getNodes();
+
+    // Notkun: long n = s.getPlacementsTried();
+    // Eftir:  n er fjöldi staðsetninga sem athugað var hvort pössuðu.
+    long getPlacementsTried();
+
+    // Notkun: long n = s.getPlacementsSucceeded();
+    // Eftir:  n er fjöldi staðsetninga sem settar voru á borðið.
+    long getPlacementsSucceeded();
+
+    // Notkun: long n = s.getBacktracks();
+    // Eftir:  n er fjöldi hnúta þar sem ekkert passaði og leitin þurfti
+    //         að bakka án þess að hafa fundið lausn.
+    long getBacktracks();
+
+    // Notkun: long n = s.getSolutions();
+    // Eftir:  n er fjöldi lausna sem fundnar hafa verið.
+    long getSolutions();
+
+    // Notkun: double r = s.getSolutionsPerSecond();
+    // Eftir:  r er fjöldi lausna á hverja sekúndu sem leitir hafa
+    //         staðið yfir, lagt saman yfir alla leitarþræði.
+    double getSolutionsPerSecond();
+
+    // Notkun: long[] h = s.getDepthHistogram();
+    // Eftir:  h[d] er fjöldi heimsóttra hnúta með d fimmferninga á
+    //         borðinu.  Síðasta sætið telur einnig alla dýpri hnúta.
+    long[] getDepthHistogram();
+
+    // Notkun: long t = s.getProducerBlockedMillis();
+    // Eftir:  t er heildartíminn í millisekúndum sem leitir hafa beðið
+    //         eftir að flakkari tæki við lausnum úr fullri biðröð.
+    long getProducerBlockedMillis();
+
+    // Notkun: long t = s.getConsumerBlockedMillis();
+    // Eftir:  t er heildartíminn í millisekúndum sem flakkarar hafa
+    //         beðið eftir að leit fyndi næstu lausn.
+    long getConsumerBlockedMillis();
+
+    // Notkun: s.reset();
+    // Eftir:  Allar tölur eru núll.
+    void reset();
+}
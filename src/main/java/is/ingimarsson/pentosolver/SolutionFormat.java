@@ -0,0 +1,283 @@
+package is.ingimarsson.pentosolver;
+
+// Tilvik af SolutionFormat er þjappað tvíundasnið fyrir lausnir á
+// einni tiltekinni fimmferningaþraut.
+//
+// Lausn er geymd sem númer staðsetninga fimmferninganna í henni, þ.e.
+// númer þeirra í BitBoard fyrir þrautina, hvert í jafn mörgum bætum,
+// einu ef staðsetningarnar eru í mesta lagi 256, tveimur ef þær eru í
+// mesta lagi 65536 og annars þremur.  Lausn á 6x10 borði tekur þannig
+// 24 bæti, í stað nokkurra hundraða sem String[] tekur í minni.  Allar
+// lausnir sömu þrautar taka jafn mörg bæti, recordSize(), svo lausn
+// númer i í straumi er á þekktum stað.
+//
+// Straumur af lausnum byrjar á haus: MAGIC, útgáfunúmeri, fjölda lína
+// borðsins og línunum sjálfum (með DataOutput.writeUTF), fjölda
+// fimmferninga í hverri lausn og fjölda bæta í hverju númeri.  Síðan
+// koma lausnirnar hver á eftir annarri þar til straumurinn endar.
+// Writer skrifar slíkan straum og Reader les hann.
+//
+// Númerin ráðast af borðinu og Pento.library(), svo sá sem les þarf
+// aðeins hausinn til að breyta lausnunum aftur í String[], á sama
+// formi og leitarvélarnar skila og PentoComponent.setBoard tekur við.
+
+import java.io.*;
+
+public final class SolutionFormat
+{
+    private static final int MAGIC = 0x50454e53;
+    private static final int VERSION = 1;
+
+    private final String[] board;
+    private final BitBoard bb;
+    private final int pieces;
+    private final int width;
+    // Fastayrðing gagna.
+    //  bb er þrautin board þýdd yfir á bitamengi.  Hver lausn hefur
+    //  pieces fimmferninga og númer hvers þeirra er geymt í width
+    //  bætum, hæsta bæti fyrst.
+
+    // Notkun: SolutionFormat f = new SolutionFormat(board);
+    // Fyrir:  board er fimmferningaþraut með a.m.k. eina línu.
+    // Eftir:  f er snið fyrir lausnir á board.
+    public SolutionFormat( String... board )
+    {
+        this.board = board.clone();
+        bb = new BitBoard(Pento.library(),Pento.makeBoard(board));
+        int empty = 0;
+        for( String line: board )
+            for( int i=0 ; i!=line.length() ; i++ )
+                if( line.charAt(i) == ' ' ) empty++;
+        pieces = empty/5;
+        int n = bb.placements();
+        width = n <= 1<<8 ? 1 : n <= 1<<16 ? 2 : 3;
+    }
+
+    // Notkun: String[] b = f.board();
+    // Fyrir:  Ekkert.
+    // Eftir:  b er afrit af þrautinni sem f er snið fyrir.
+    public String[] board()
+    {
+        return board.clone();
+    }
+
+    // Notkun: int n = f.recordSize();
+    // Fyrir:  Ekkert.
+    // Eftir:  n er fjöldi bæta sem hver lausn tekur.
+    public int recordSize()
+    {
+        return pieces*width;
+    }
+
+    // Notkun: byte[] r = f.encode(solution);
+    // Fyrir:  solution er lausn á þrautinni.
+    // Eftir:  r er lausnin á þjöppuðu formi, recordSize() bæti.
+    public byte[] encode( String[] solution )
+    {
+        byte[] res = new byte[recordSize()];
+        encode(solution,res,0);
+        return res;
+    }
+
+    // Notkun: f.encode(solution,buf,off);
+    // Fyrir:  solution er lausn á þrautinni, buf hefur pláss fyrir
+    //         recordSize() bæti frá og með sæti off.
+    // Eftir:  Lausnin hefur verið skrifuð á þjöppuðu formi í
+    //         buf[off..off+recordSize()-1].  Ef solution er ekki lausn
+    //         á þrautinni er IllegalArgumentException kastað.
+    public void encode( String[] solution, byte[] buf, int off )
+    {
+        int[] ps = bb.tiling(solution);
+        if( ps == null ) throw new IllegalArgumentException("not a solution");
+        encode(ps,ps.length,buf,off);
+    }
+
+    // Notkun: f.encode(ps,n,buf,off);
+    // Fyrir:  ps[0..n) eru númer staðsetninganna í lausn á þrautinni, í
+    //         BitBoard fyrir hana, t.d. eins og BitSearch sendir þær í
+    //         Pento.RecordSink.  buf hefur pláss fyrir recordSize() bæti
+    //         frá og með sæti off.
+    // Eftir:  Lausnin hefur verið skrifuð á þjöppuðu formi í
+    //         buf[off..off+recordSize()-1].  Ef n er ekki fjöldi
+    //         fimmferninga í lausn er IllegalArgumentException kastað.
+    public void encode( int[] ps, int n, byte[] buf, int off )
+    {
+        if( n != pieces ) throw new IllegalArgumentException("not a solution");
+        for( int i=0 ; i!=n ; i++ )
+        {
+            for( int k=width-1 ; k>=0 ; k-- ) buf[off++] = (byte)(ps[i]>>>(8*k));
+        }
+    }
+
+    // Notkun: String[] b = f.decode(buf,off);
+    // Fyrir:  buf[off..off+recordSize()-1] er lausn á þjöppuðu formi,
+    //         skrifuð með encode fyrir sömu þraut.
+    // Eftir:  b er lausnin.  Ef buf inniheldur ekki lausn er
+    //         IllegalArgumentException kastað.
+    public String[] decode( byte[] buf, int off )
+    {
+        int[] ps = new int[pieces];
+        for( int i=0 ; i!=pieces ; i++ )
+        {
+            int p = 0;
+            for( int k=0 ; k!=width ; k++ ) p = p<<8 | buf[off++]&0xff;
+            if( p >= bb.placements() ) throw new IllegalArgumentException("not a solution");
+            ps[i] = p;
+        }
+        return bb.render(ps,pieces);
+    }
+
+    // Notkun: f.writeHeader(out);
+    // Fyrir:  out er opinn straumur.
+    // Eftir:  Haus straums af lausnum fyrir f hefur verið skrifaður í out.
+    private void writeHeader( DataOutputStream out )
+        throws IOException
+    {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(board.length);
+        for( String line: board ) out.writeUTF(line);
+        out.writeInt(pieces);
+        out.writeByte(width);
+    }
+
+    // Notkun: SolutionFormat f = readHeader(in);
+    // Fyrir:  in er opinn straumur.
+    // Eftir:  Búið er að lesa haus straums af lausnum úr in og f er
+    //         sniðið sem hann lýsir.  Ef in byrjar ekki á slíkum haus er
+    //         IOException kastað.
+    private static SolutionFormat readHeader( DataInputStream in )
+        throws IOException
+    {
+        if( in.readInt() != MAGIC || in.readByte() != VERSION ) throw new IOException("not a solution stream");
+        String[] board = new String[in.readInt()];
+        for( int i=0 ; i!=board.length ; i++ ) board[i] = in.readUTF();
+        SolutionFormat f = new SolutionFormat(board);
+        if( in.readInt() != f.pieces || in.readByte() != f.width ) throw new IOException("solution stream does not match its board");
+        return f;
+    }
+
+    // Tilvik af Writer skrifa lausnir á einni þraut í straum á
+    // þjöppuðu formi.
+    public static final class Writer implements Closeable, Flushable
+    {
+        private final SolutionFormat format;
+        private final DataOutputStream out;
+        private final byte[] record;
+        private long count = 0;
+        // Fastayrðing gagna.
+        //  Búið er að skrifa haus fyrir format og count lausnir í out.
+        //  record er vinnusvæði fyrir eina lausn.
+
+        // Notkun: Writer w = new Writer(out,board);
+        // Fyrir:  out er opinn straumur, board er fimmferningaþraut.
+        // Eftir:  Búið er að skrifa haus fyrir board í out og w skrifar
+        //         lausnir á board í out.
+        public Writer( OutputStream out, String... board )
+            throws IOException
+        {
+            format = new SolutionFormat(board);
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            record = new byte[format.recordSize()];
+            format.writeHeader(this.out);
+        }
+
+        // Notkun: w.write(solution);
+        // Fyrir:  solution er lausn á þrautinni sem w skrifar lausnir á.
+        // Eftir:  Lausnin hefur verið skrifuð.
+        public void write( String[] solution )
+            throws IOException
+        {
+            format.encode(solution,record,0);
+            out.write(record);
+            count++;
+        }
+
+        // Notkun: long n = w.count();
+        // Fyrir:  Ekkert.
+        // Eftir:  n er fjöldi lausna sem w hefur skrifað.
+        public long count()
+        {
+            return count;
+        }
+
+        public void flush()
+            throws IOException
+        {
+            out.flush();
+        }
+
+        public void close()
+            throws IOException
+        {
+            out.close();
+        }
+    }
+
+    // Tilvik af Reader lesa lausnir sem Writer skrifaði úr straumi.
+    public static final class Reader implements Closeable
+    {
+        private final SolutionFormat format;
+        private final DataInputStream in;
+        private final byte[] record;
+        // Fastayrðing gagna.
+        //  Búið er að lesa hausinn úr in, sem lýsir format, og núll eða
+        //  fleiri lausnir.  record er vinnusvæði fyrir eina lausn.
+
+        // Notkun: Reader r = new Reader(in);
+        // Fyrir:  in er opinn straumur sem byrjar á haus.
+        // Eftir:  Búið er að lesa hausinn og r les lausnirnar sem á
+        //         eftir koma.  Ef in byrjar ekki á haus er IOException
+        //         kastað.
+        public Reader( InputStream in )
+            throws IOException
+        {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            format = readHeader(this.in);
+            record = new byte[format.recordSize()];
+        }
+
+        // Notkun: SolutionFormat f = r.format();
+        // Fyrir:  Ekkert.
+        // Eftir:  f er snið lausnanna sem r les.
+        public SolutionFormat format()
+        {
+            return format;
+        }
+
+        // Notkun: boolean ok = r.readRecord(buf,off);
+        // Fyrir:  buf hefur pláss fyrir format().recordSize() bæti frá
+        //         og með sæti off.
+        // Eftir:  Ef fleiri lausnir voru í straumnum er ok satt og næsta
+        //         lausn hefur verið lesin, á þjöppuðu formi, í buf frá og
+        //         með sæti off.  Annars er ok ósatt.  Ef straumurinn endar
+        //         í miðri lausn er EOFException kastað.  Þrautir án auðra
+        //         reita hafa tómar lausnir sem ekki sjást í straumnum, svo
+        //         ok er alltaf ósatt fyrir þær.
+        public boolean readRecord( byte[] buf, int off )
+            throws IOException
+        {
+            if( record.length == 0 ) return false;
+            int n = in.read(buf,off,record.length);
+            if( n < 0 ) return false;
+            in.readFully(buf,off+n,record.length-n);
+            return true;
+        }
+
+        // Notkun: String[] b = r.read();
+        // Fyrir:  Ekkert.
+        // Eftir:  b er næsta lausn í straumnum, eða null ef þær eru búnar.
+        public String[] read()
+            throws IOException
+        {
+            if( !readRecord(record,0) ) return null;
+            return format.decode(record,0);
+        }
+
+        public void close()
+            throws IOException
+        {
+            in.close();
+        }
+    }
+}
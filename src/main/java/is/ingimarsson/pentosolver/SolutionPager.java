@@ -0,0 +1,175 @@
+package is.ingimarsson.pentosolver;
+
+// Tilvik af SolutionPager geyma lausnir sem leit skilar á þjöppuðu
+// formi, sjá SolutionFormat, og búa til String[] aðeins fyrir þá lausn
+// sem beðið er um.  Leitin sendir númer staðsetninganna í hverri lausn
+// beint í SolutionPager, sjá Pento.RecordSink, svo engin borð eru búin
+// til fyrr en lausn er sótt með get.  Hver lausn tekur recordSize() bæti, t.d. 24 á 6x10
+// borði, svo hægt er að fletta gegnum þúsundir lausna án þess að
+// minnisnotkun skipti máli.
+//
+// Einn þráður, t.d. SwingWorker, leitar að lausnunum með run, sem bíður
+// á meðan búið er að finna AHEAD lausnir fram yfir þá sem síðast var
+// beðið um með want.  Aðrir þræðir, t.d. atburðaþráður
+// Swing, lesa þær sem komnar eru með size og get án þess að bíða
+// nokkurn tíma eftir leitinni.
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+final class SolutionPager implements AutoCloseable
+{
+    static final int AHEAD = 1000;
+
+    private final SolutionFormat format;
+    private final Pento.MyIterable source;
+    private byte[] records;
+    private int count = 0;
+    private int wanted = AHEAD;
+    private boolean complete = false;
+    private boolean closed = false;
+    private Thread runner = null;
+    // Fastayrðing gagna.
+    //  Leitin að lausnunum sem source tilgreinir hefur fundið count
+    //  fyrstu lausnirnar og lausn i er geymd á formi format í
+    //  records[i*r..(i+1)*r-1], þar sem r er format.recordSize().  Leitin
+    //  bíður áður en hún geymir fleiri en wanted lausnir.  Ef complete er
+    //  satt hefur hún fundið allar lausnir, og ef closed er satt hefur
+    //  hún verið stöðvuð áður.  Ef runner er ekki null er hann
+    //  þráðurinn sem leitar.  Öll svæðin nema format og source eru
+    //  aðeins notuð innan lássins á þessum hlut.
+
+    // Notkun: SolutionPager p = new SolutionPager(board,source);
+    // Fyrir:  board er fimmferningaþraut, source er safn lausna á board
+    //         sem tilgreinir hvorki hlutlausnir né aðeins ólíkar lausnir.
+    // Eftir:  p flettir gegnum lausnirnar sem source tilgreinir, þegar
+    //         leitað hefur verið að þeim með run.
+    SolutionPager( String[] board, Pento.MyIterable source )
+    {
+        format = new SolutionFormat(board);
+        this.source = source;
+        records = new byte[Math.max(format.recordSize(),1)*64];
+    }
+
+    // Notkun: int n = p.size();
+    // Fyrir:  Ekkert.
+    // Eftir:  n er fjöldi lausna sem búið er að finna.
+    synchronized int size()
+    {
+        return count;
+    }
+
+    // Notkun: boolean c = p.isComplete();
+    // Fyrir:  Ekkert.
+    // Eftir:  c er satt þá og því aðeins að size() sé fjöldi allra
+    //         lausnanna.
+    synchronized boolean isComplete()
+    {
+        return complete;
+    }
+
+    // Notkun: boolean c = p.isClosed();
+    // Fyrir:  Ekkert.
+    // Eftir:  c er satt þá og því aðeins að leitinni hafi verið lokað
+    //         með close() áður en hún skilaði öllum lausnum.
+    synchronized boolean isClosed()
+    {
+        return closed;
+    }
+
+    // Notkun: String[] b = p.get(i);
+    // Fyrir:  0 <= i < p.size().
+    // Eftir:  b er lausn númer i, talið frá 0, í þeirri röð sem
+    //         flakkari yfir source í einum þræði skilar þeim.
+    synchronized String[] get( int i )
+    {
+        if( i < 0 || i >= count ) throw new Error();
+        return format.decode(records,i*format.recordSize());
+    }
+
+    // Notkun: p.want(i);
+    // Fyrir:  i >= 0.
+    // Eftir:  run finnur lausnir þar til þær eru i+1+AHEAD eða allar.
+    synchronized void want( int i )
+    {
+        if( i+1+AHEAD > wanted )
+        {
+            wanted = i+1+AHEAD;
+            notifyAll();
+        }
+    }
+
+    // Notkun: p.run(found);
+    // Fyrir:  Ekki hefur verið kallað á run áður.
+    // Eftir:  Búið er að leita að öllum lausnunum, eða leitinni hefur
+    //         verið lokað með close eða þráðurinn truflaður, og kallað á
+    //         found.accept(n) í hvert sinn sem lausn númer n, talið frá 1,
+    //         fannst.  Leitin bíður ef búið er að finna þær lausnir sem
+    //         beðið hefur verið um með want.  Ef leitin stöðvast vegna
+    //         villu er henni kastað áfram.
+    void run( IntConsumer found )
+        throws InterruptedException
+    {
+        synchronized( this )
+        {
+            if( closed ) return;
+            runner = Thread.currentThread();
+        }
+        try
+        {
+            source.records((ps,n)->
+                {
+                    int c;
+                    synchronized( this )
+                    {
+                        while( count >= wanted && !closed ) wait();
+                        if( closed ) throw new InterruptedException();
+                        int r = format.recordSize();
+                        if( (count+1)*r > records.length ) records = Arrays.copyOf(records,2*records.length);
+                        format.encode(ps,n,records,count*r);
+                        c = ++count;
+                    }
+                    found.accept(c);
+                });
+            synchronized( this )
+            {
+                if( !closed ) complete = true;
+            }
+        }
+        catch( InterruptedException e )
+        {
+            // Leitin hættir líka ef beðið var um að þráðurinn hætti,
+            // og þá er lausnunum ekki lokið.
+            synchronized( this )
+            {
+                closed = true;
+            }
+        }
+        catch( RuntimeException e )
+        {
+            // Ef close stöðvaði leitina getur hún hafa hætt með villu.
+            if( !isClosed() ) throw e;
+        }
+        finally
+        {
+            synchronized( this )
+            {
+                runner = null;
+            }
+            // close kann að hafa truflað þráðinn eftir að leitinni lauk.
+            if( isClosed() ) Thread.interrupted();
+        }
+    }
+
+    // Notkun: p.close();
+    // Fyrir:  Ekkert.
+    // Eftir:  Leitin sem framleiðir lausnirnar hefur verið beðin að
+    //         hætta og run finnur ekki fleiri.  Lausnirnar sem búið er að
+    //         finna eru enn aðgengilegar.
+    public synchronized void close()
+    {
+        if( !complete ) closed = true;
+        if( closed && runner != null ) runner.interrupt();
+        notifyAll();
+    }
+}
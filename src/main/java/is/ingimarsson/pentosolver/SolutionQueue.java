@@ -0,0 +1,172 @@
+package is.ingimarsson.pentosolver;
+
+// Tilvik af SolutionQueue er takmörkuð biðröð lausna milli eins
+// eða fleiri framleiðsluþráða (leitarvéla) og eins neytanda.
+//
+// Framleiðendur setja lausnir í hringbiðminni og þurfa aðeins að bíða
+// ef það er fullt.  Neytandinn tæmir allt sem komið er í biðminnið í
+// einu lagi yfir í sína eigin runu og skilar síðan lausnunum úr henni
+// án þess að snerta sameiginlega lásinn.  Framleiðandi vekur neytandann
+// aðeins ef hann bíður, og neytandinn vekur framleiðendur aðeins ef
+// einhver þeirra bíður, svo þræðirnir skiptast á heilum lotum af
+// lausnum en ekki einni lausn í einu.
+//
+// Þegar leit lýkur er kallað á finish, annaðhvort án villu eða með
+// þeirri villu sem stöðvaði leitina, í stað þess að senda sérstakt
+// lokagildi í biðröðina.  Ef neytandinn hættir við, t.d. úr öðrum
+// þræði, er kallað á close, sem vekur neytandann þó að leitin hafi
+// aldrei byrjað og því aldrei kallað á finish.
+//
+// Ef kveikt er á SearchStats er mældur sá tími sem framleiðendur og
+// neytandinn bíða.
+
+final class SolutionQueue implements Pento.Sink
+{
+    private final String[][] ring;
+    private int head = 0;
+    private int count = 0;
+    private boolean done = false;
+    private boolean closed = false;
+    private Throwable error = null;
+    private int waitingProducers = 0;
+    private boolean waitingConsumer = false;
+
+    private String[][] batch;
+    private int batchPos = 0;
+    private int batchSize = 0;
+    // Fastayrðing gagna.
+    //  Lausnirnar sem komnar eru en neytandinn hefur ekki tekið eru
+    //  fyrst batch[batchPos..batchSize-1] og síðan count lausnir í ring,
+    //  sú fyrsta í ring[head] og svo koll af kolli hringinn.  done er satt
+    //  ef leitinni er lokið og þá er error villan sem stöðvaði hana, eða
+    //  null.  Ef closed er satt er done líka satt, ring er tómt og
+    //  lausnum sem framleiðendur setja er hent.  waitingProducers er
+    //  fjöldi framleiðenda sem bíða eftir plássi og waitingConsumer er
+    //  satt ef neytandinn bíður eftir lausn.  ring, head, count, done,
+    //  closed, error og waiting* eru aðeins notuð innan lássins á
+    //  þessum hlut; batch* eru aðeins notuð af neytandanum.
+
+    // Notkun: SolutionQueue q = new SolutionQueue(capacity);
+    // Fyrir:  capacity >= 1.
+    // Eftir:  q er ný tóm biðröð sem rúmar capacity lausnir.
+    SolutionQueue( int capacity )
+    {
+        ring = new String[capacity][];
+        batch = new String[capacity][];
+    }
+
+    // Notkun: q.put(board);
+    // Fyrir:  board er lausn, finish hefur ekki verið kallað.
+    // Eftir:  board er komin í biðröðina.  Kallið bíður ef biðröðin
+    //         er full þar til neytandinn hefur tekið úr henni.  Ef
+    //         biðröðinni hefur verið lokað er board hent.
+    public synchronized void put( String[] board )
+        throws InterruptedException
+    {
+        SearchStats.HandoffEvent e = SearchStats.ON && count == ring.length ? SearchStats.waiting(true) : null;
+        while( count == ring.length && !closed )
+        {
+            waitingProducers++;
+            try
+            {
+                wait();
+            }
+            finally
+            {
+                waitingProducers--;
+            }
+        }
+        if( e != null ) SearchStats.waited(e);
+        if( closed ) return;
+        ring[(head+count)%ring.length] = board;
+        count++;
+        if( waitingConsumer ) notifyAll();
+    }
+
+    // Notkun: q.finish(e);
+    // Fyrir:  Leitinni sem setur lausnir í q er lokið, e er villan
+    //         sem stöðvaði hana eða null ef hún kláraðist eðlilega.
+    // Eftir:  Neytandinn fær þær lausnir sem komnar eru og síðan
+    //         skilar hasNext() ósönnu, eða kastar villu ef e er ekki null.
+    synchronized void finish( Throwable e )
+    {
+        if( closed ) return;
+        done = true;
+        error = e;
+        notifyAll();
+    }
+
+    // Notkun: q.close();
+    // Fyrir:  Ekkert.
+    // Eftir:  Lausnunum í biðröðinni hefur verið hent og hasNext()
+    //         skilar ósönnu þegar neytandinn hefur tekið þær sem hann
+    //         hafði þegar sótt, líka ef hann bíður núna eftir lausn og
+    //         þó að finish sé aldrei kallað.  Framleiðendur sem bíða
+    //         eftir plássi halda áfram.  Kalla má á close úr hvaða þræði
+    //         sem er, oftar en einu sinni.
+    synchronized void close()
+    {
+        closed = true;
+        done = true;
+        error = null;
+        for( int i=0 ; i!=ring.length ; i++ ) ring[i] = null;
+        count = 0;
+        notifyAll();
+    }
+
+    // Notkun: boolean hn = q.hasNext();
+    // Fyrir:  Aðeins einn þráður les úr q.
+    // Eftir:  hn er satt þá og því aðeins að q geti skilað a.m.k.
+    //         einni enn lausn með kalli á next().  Ef leitin stöðvaðist
+    //         með villu er henni kastað þegar allar lausnir eru sóttar.
+    boolean hasNext()
+        throws InterruptedException
+    {
+        if( batchPos != batchSize ) return true;
+        synchronized( this )
+        {
+            SearchStats.HandoffEvent e = SearchStats.ON && count == 0 && !done ? SearchStats.waiting(false) : null;
+            while( count == 0 && !done )
+            {
+                waitingConsumer = true;
+                try
+                {
+                    wait();
+                }
+                finally
+                {
+                    waitingConsumer = false;
+                }
+            }
+            if( e != null ) SearchStats.waited(e);
+            if( count == 0 )
+            {
+                if( error != null ) throw new RuntimeException(error);
+                return false;
+            }
+            batchPos = 0;
+            batchSize = count;
+            for( int i=0 ; i!=count ; i++ )
+            {
+                int k = (head+i)%ring.length;
+                batch[i] = ring[k];
+                ring[k] = null;
+            }
+            head = (head+count)%ring.length;
+            count = 0;
+            if( waitingProducers != 0 ) notifyAll();
+            return true;
+        }
+    }
+
+    // Notkun: String[] b = q.next();
+    // Fyrir:  Búið er að staðfesta með q.hasNext() að til sé lausn.
+    // Eftir:  b er næsta lausn í biðröðinni.
+    String[] next()
+    {
+        if( batchPos == batchSize ) throw new Error();
+        String[] res = batch[batchPos];
+        batch[batchPos++] = null;
+        return res;
+    }
+}
@@ -0,0 +1,425 @@
+package is.ingimarsson.pentosolver;
+
+// Tilvik af SolveCache er skyndiminni fyrir lausnir fimmferningaþrauta.
+//
+// Þrautir eru auðkenndar með lykli sem er óháður snúningum og
+// speglunum borðsins og því hvar auðu reitirnir eru á því: Borðið er
+// skorið niður í minnsta rétthyrning sem inniheldur alla auða reiti,
+// og af þeim (allt að) 8 rétthyrningum sem fást með snúningum og
+// speglunum og hafa ekki fleiri línur en dálka er sá valinn sem kemur
+// fyrstur í stafrófsröð sem lykill.  Leitin fer niður dálkana og er
+// mun fljótari þegar þeir eru stuttir.
+// Þrautin sem lykillinn lýsir (kanóníska þrautin) er það sem er leyst
+// og geymt, og lausnum hennar er varpað til baka á það borð sem spurt
+// var um.
+//
+// Fyrir hverja þraut er geymdur fjöldi lausna og, ef þær eru ekki of
+// margar, lausnirnar sjálfar á þjöppuðu formi: einn bæti fyrir hvern
+// auðan reit, nafn fimmferningsins sem þekur hann, í röð auðu reitanna
+// á kanóníska borðinu.  Nýlega notaðar þrautir eru geymdar í minni og
+// þeim sem lengst hafa verið ónotaðar er hent þegar þær verða of margar
+// (LRU).  Ef mappa er gefin er hver þraut einnig skrifuð í skrá þar sem
+// nafnið er SHA-256 fingrafar lykilsins, svo hún lifir endurræsingu.
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+public final class SolveCache
+{
+    private static final int MAGIC = 0x50454e31;
+
+    private final int capacity;
+    private final int maxStored;
+    private final Path dir;
+    private final LinkedHashMap<String,Record> memory;
+    // Fastayrðing gagna.
+    //  memory inniheldur í mesta lagi capacity færslur, með lykli hverrar
+    //  þrautar, í röð eftir því hvenær þær voru síðast notaðar.  Lausnir
+    //  eru aðeins geymdar fyrir þrautir með í mesta lagi maxStored
+    //  lausnir.  Ef dir er ekki null þá er hver færsla sem reiknuð hefur
+    //  verið einnig í skrá í dir.  memory er aðeins notað innan lássins
+    //  á þessum hlut.
+
+    // Tilvik af Record eru niðurstöður fyrir eina kanóníska þraut.
+    private static final class Record
+    {
+        final String key;
+        final long count;
+        final int cells;
+        final byte[] data;
+        // Fastayrðing gagna.
+        //  Kanóníska þrautin sem key lýsir hefur cells auða reiti og
+        //  count lausnir.  data er null ef lausnirnar eru ekki geymdar,
+        //  annars eru bætin data[i*cells..(i+1)*cells-1] lausn i.
+
+        Record( String key, long count, int cells, byte[] data )
+        {
+            this.key = key;
+            this.count = count;
+            this.cells = cells;
+            this.data = data;
+        }
+    }
+
+    // Tilvik af View er borð sem spurt er um ásamt vörpun þess á
+    // kanóníska borðið.
+    private static final class View
+    {
+        final String[] board;
+        final String key;
+        final int[] cellX, cellY, perm;
+        // Fastayrðing gagna.
+        //  key er lykill board.  Auðu reitirnir í board, í röð línu fyrir
+        //  línu, eru (cellX[i],cellY[i]) og reitur i er mynd auða reits
+        //  númer perm[i] á kanóníska borðinu.
+
+        View( String[] board, String key, int[] cellX, int[] cellY, int[] perm )
+        {
+            this.board = board;
+            this.key = key;
+            this.cellX = cellX;
+            this.cellY = cellY;
+            this.perm = perm;
+        }
+    }
+
+    // Notkun: SolveCache c = new SolveCache(capacity,maxStored,dir);
+    // Fyrir:  capacity >= 1, maxStored >= 0, dir er slóð á möppu sem
+    //         má skrifa í, eða null.
+    // Eftir:  c er nýtt skyndiminni sem geymir allt að capacity þrautir
+    //         í minni og lausnir þeirra sem hafa í mesta lagi maxStored
+    //         lausnir.  Ef dir er ekki null eru þrautirnar einnig geymdar
+    //         þar og sóttar þaðan ef þær eru ekki í minni.
+    public SolveCache( int capacity, int maxStored, Path dir )
+        throws IOException
+    {
+        if( capacity < 1 || maxStored < 0 ) throw new Error();
+        this.capacity = capacity;
+        this.maxStored = maxStored;
+        this.dir = dir;
+        if( dir != null ) Files.createDirectories(dir);
+        memory =
+            new LinkedHashMap<String,Record>(16,0.75f,true)
+            {
+                protected boolean removeEldestEntry( Map.Entry<String,Record> e )
+                {
+                    return size() > SolveCache.this.capacity;
+                }
+            };
+    }
+
+    // Notkun: long n = c.count(board);
+    // Fyrir:  board er fimmferningaþraut eins og fyrir Pento.makeSolutions.
+    // Eftir:  n er fjöldi lausna á board.
+    public long count( String... board )
+        throws IOException
+    {
+        return entry(view(board)).count;
+    }
+
+    // Notkun: List<String[]> s = c.solutions(board);
+    // Fyrir:  board er fimmferningaþraut eins og fyrir Pento.makeSolutions.
+    // Eftir:  s eru allar lausnir á board, eða null ef þær eru fleiri en
+    //         maxStored.  Lausnirnar eru í sömu röð og leitin finnur
+    //         lausnir kanónísku þrautarinnar, svo röðin getur verið önnur
+    //         en ef board er leyst beint.  Hver lausn er búin til þegar
+    //         hún er sótt úr s.
+    public List<String[]> solutions( String... board )
+        throws IOException
+    {
+        View v = view(board);
+        Record e = entry(v);
+        if( e.data == null ) return null;
+        return new AbstractList<String[]>()
+            {
+                public String[] get( int i )
+                {
+                    if( i < 0 || i >= e.count ) throw new IndexOutOfBoundsException();
+                    return decode(v,e,i);
+                }
+
+                public int size()
+                {
+                    return (int)e.count;
+                }
+            };
+    }
+
+    // Notkun: String f = SolveCache.fingerprint(board);
+    // Fyrir:  board er fimmferningaþraut.
+    // Eftir:  f er SHA-256 fingrafar lykils board, sem sextándakerfistala.
+    //         Tvö borð hafa sama fingrafar þá og því aðeins að annað sé
+    //         snúningur eða speglun hins, að umframreitum slepptum.
+    public static String fingerprint( String... board )
+    {
+        return hash(view(board).key);
+    }
+
+    // Notkun: Record e = c.entry(v);
+    // Fyrir:  v er borð sem spurt er um.
+    // Eftir:  e er færslan fyrir kanónísku þrautina sem v varpast á.
+    //         Hún er sótt úr minni, úr dir eða reiknuð, í þeirri röð,
+    //         og er nú nýjasta færslan í minni.  Færsla í dir án lausna
+    //         er reiknuð aftur ef lausnirnar eru ekki fleiri en maxStored.
+    private Record entry( View v )
+        throws IOException
+    {
+        synchronized( this )
+        {
+            Record e = memory.get(v.key);
+            if( e != null ) return e;
+        }
+        Record e = load(v.key);
+        if( e == null || (e.data == null && e.count <= maxStored) )
+        {
+            e = compute(v.key);
+            store(e);
+        }
+        synchronized( this )
+        {
+            memory.put(v.key,e);
+        }
+        return e;
+    }
+
+    // Notkun: Record e = c.compute(key);
+    // Fyrir:  key er lykill þrautar.
+    // Eftir:  e er ný færsla fyrir þrautina sem key lýsir, með lausnum
+    //         ef þær eru í mesta lagi maxStored.
+    private Record compute( String key )
+    {
+        String[] board = board(key);
+        int cells = 0;
+        for( String line: board )
+            for( int y=0 ; y!=line.length() ; y++ )
+                if( line.charAt(y) == ' ' ) cells++;
+        if( cells == 0 ) return new Record(key,1,0,new byte[0]);
+        // Ein leit telur allar lausnirnar og geymir þær maxStored fyrstu.
+        // Borð eru aðeins búin til fyrir lausnirnar sem geymdar eru.
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] stored = { 0 };
+        BitBoard bb = new BitBoard(Pento.library(),Pento.makeBoard(board));
+        BitSearch search = new BitSearch(bb,null,false);
+        search.records((ps,m)->
+            {
+                if( stored[0] == maxStored ) return;
+                stored[0]++;
+                String[] s = bb.render(ps,m);
+                for( int x=0 ; x!=board.length ; x++ )
+                    for( int y=0 ; y!=board[x].length() ; y++ )
+                        if( board[x].charAt(y) == ' ' ) data.write(s[x].charAt(y));
+            });
+        long n = search.count(Long.MAX_VALUE);
+        if( n > maxStored ) return new Record(key,n,cells,null);
+        return new Record(key,n,cells,data.toByteArray());
+    }
+
+    // Notkun: Record e = c.load(key);
+    // Fyrir:  key er lykill þrautar.
+    // Eftir:  e er færslan fyrir key sem geymd er í dir, eða null ef
+    //         dir er null eða engin slík færsla er þar.
+    private Record load( String key )
+        throws IOException
+    {
+        if( dir == null ) return null;
+        Path f = dir.resolve(hash(key));
+        if( !Files.exists(f) ) return null;
+        try( DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(f))) )
+        {
+            if( in.readInt() != MAGIC ) return null;
+            if( !in.readUTF().equals(key) ) return null;
+            long count = in.readLong();
+            int cells = in.readInt();
+            byte[] data = null;
+            if( in.readBoolean() )
+            {
+                data = new byte[(int)count*cells];
+                in.readFully(data);
+            }
+            return new Record(key,count,cells,data);
+        }
+        catch( EOFException e )
+        {
+            return null;
+        }
+    }
+
+    // Notkun: c.store(e);
+    // Fyrir:  e er færsla sem reiknuð hefur verið.
+    // Eftir:  Ef dir er ekki null þá hefur e verið skrifuð í dir.  Skráin
+    //         er skrifuð undir öðru nafni og svo færð, svo aðrir sem lesa
+    //         úr dir sjá aldrei hálfskrifaða færslu.
+    private void store( Record e )
+        throws IOException
+    {
+        if( dir == null ) return;
+        Path tmp = Files.createTempFile(dir,"entry",".tmp");
+        try( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))) )
+        {
+            out.writeInt(MAGIC);
+            out.writeUTF(e.key);
+            out.writeLong(e.count);
+            out.writeInt(e.cells);
+            out.writeBoolean(e.data != null);
+            if( e.data != null ) out.write(e.data);
+        }
+        Files.move(tmp,dir.resolve(hash(e.key)),StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Notkun: String[] b = SolveCache.decode(v,e,i);
+    // Fyrir:  e er færslan fyrir v, með lausnum, 0 <= i < e.count.
+    // Eftir:  b er lausn i á kanónísku þrautinni vörpuð á borð v.
+    private static String[] decode( View v, Record e, int i )
+    {
+        char[][] b = new char[v.board.length][];
+        for( int x=0 ; x!=b.length ; x++ ) b[x] = v.board[x].toCharArray();
+        int base = i*e.cells;
+        for( int k=0 ; k!=v.perm.length ; k++ )
+            b[v.cellX[k]][v.cellY[k]] = (char)e.data[base+v.perm[k]];
+        String[] res = new String[b.length];
+        for( int x=0 ; x!=b.length ; x++ ) res[x] = new String(b[x]);
+        return res;
+    }
+
+    // Notkun: View v = SolveCache.view(board);
+    // Fyrir:  board er fimmferningaþraut.
+    // Eftir:  v er board ásamt lykli sínum og vörpun á kanóníska borðið.
+    private static View view( String[] board )
+    {
+        int n = 0, x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = -1, y1 = -1;
+        for( int x=0 ; x!=board.length ; x++ )
+        {
+            for( int y=0 ; y!=board[x].length() ; y++ )
+            {
+                if( board[x].charAt(y) != ' ' ) continue;
+                n++;
+                x0 = Math.min(x0,x);
+                x1 = Math.max(x1,x);
+                y0 = Math.min(y0,y);
+                y1 = Math.max(y1,y);
+            }
+        }
+        int[] cellX = new int[n], cellY = new int[n], perm = new int[n];
+        if( n == 0 ) return new View(board,"0x0:",cellX,cellY,perm);
+        int rows = x1-x0+1, cols = y1-y0+1;
+        boolean[][] empty = new boolean[rows][cols];
+        n = 0;
+        for( int x=x0 ; x<=x1 ; x++ )
+        {
+            for( int y=y0 ; y<board[x].length() && y<=y1 ; y++ )
+            {
+                if( board[x].charAt(y) != ' ' ) continue;
+                empty[x-x0][y-y0] = true;
+                cellX[n] = x;
+                cellY[n] = y;
+                n++;
+            }
+        }
+        String key = null;
+        int best = 0;
+        for( int g=0 ; g!=8 ; g++ )
+        {
+            if( (g < 4) != (rows <= cols) && rows != cols ) continue;
+            String k = key(empty,g);
+            if( key == null || k.compareTo(key) < 0 )
+            {
+                key = k;
+                best = g;
+            }
+        }
+        int r2 = best < 4 ? rows : cols, c2 = best < 4 ? cols : rows;
+        int[][] index = new int[r2][c2];
+        n = 0;
+        for( int x=0 ; x!=r2 ; x++ )
+            for( int y=0 ; y!=c2 ; y++ )
+                if( key.charAt(key.indexOf(':')+1+x*(c2+1)+y) == ' ' ) index[x][y] = n++;
+        for( int k=0 ; k!=n ; k++ )
+        {
+            int x = cellX[k]-x0, y = cellY[k]-y0;
+            perm[k] = index[mapX(best,x,y,rows,cols)][mapY(best,x,y,rows,cols)];
+        }
+        return new View(board,key,cellX,cellY,perm);
+    }
+
+    // Notkun: String k = SolveCache.key(empty,g);
+    // Fyrir:  empty er rétthyrnt fylki með a.m.k. eitt sæti, 0 <= g < 8.
+    // Eftir:  k er lykill myndar empty undir vörpun g: stærð myndarinnar
+    //         sem "RxC:" og síðan línur hennar, hver með C stöfum, ' '
+    //         fyrir auðan reit og '*' fyrir fullan, og '/' á eftir hverri.
+    private static String key( boolean[][] empty, int g )
+    {
+        int rows = empty.length, cols = empty[0].length;
+        int r2 = g < 4 ? rows : cols, c2 = g < 4 ? cols : rows;
+        char[][] b = new char[r2][c2];
+        for( int x=0 ; x!=rows ; x++ )
+            for( int y=0 ; y!=cols ; y++ )
+                b[mapX(g,x,y,rows,cols)][mapY(g,x,y,rows,cols)] = empty[x][y] ? ' ' : '*';
+        StringBuilder res = new StringBuilder();
+        res.append(r2).append('x').append(c2).append(':');
+        for( char[] line: b ) res.append(line).append('/');
+        return res.toString();
+    }
+
+    // Notkun: String[] b = SolveCache.board(key);
+    // Fyrir:  key er lykill þrautar.
+    // Eftir:  b er kanóníska þrautin sem key lýsir.
+    private static String[] board( String key )
+    {
+        String body = key.substring(key.indexOf(':')+1);
+        if( body.isEmpty() ) return new String[0];
+        return body.split("/");
+    }
+
+    // Notkun: int x2 = SolveCache.mapX(g,x,y,rows,cols);
+    // Fyrir:  (x,y) er reitur í rétthyrningi með rows línum og cols
+    //         dálkum, 0 <= g < 8.
+    // Eftir:  x2 er línunúmer myndar (x,y) undir vörpun g, með sömu
+    //         númerun varpana og í Symmetry.  Varpanir 4 til 7 víxla
+    //         línum og dálkum svo myndin hefur cols línur og rows dálka.
+    private static int mapX( int g, int x, int y, int rows, int cols )
+    {
+        switch( g )
+        {
+        case 0: case 1: return x;
+        case 2: case 3: return rows-1-x;
+        case 4: case 6: return y;
+        default: return cols-1-y;
+        }
+    }
+
+    // Notkun: int y2 = SolveCache.mapY(g,x,y,rows,cols);
+    // Fyrir:  Sama og fyrir mapX.
+    // Eftir:  y2 er dálknúmer myndar (x,y) undir vörpun g.
+    private static int mapY( int g, int x, int y, int rows, int cols )
+    {
+        switch( g )
+        {
+        case 0: case 2: return y;
+        case 1: case 3: return cols-1-y;
+        case 4: case 5: return x;
+        default: return rows-1-x;
+        }
+    }
+
+    // Notkun: String h = SolveCache.hash(key);
+    // Fyrir:  key er strengur.
+    // Eftir:  h er SHA-256 fingrafar key, sem sextándakerfistala.
+    private static String hash( String key )
+    {
+        try
+        {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder res = new StringBuilder();
+            for( byte b: d ) res.append(String.format("%02x",b&0xff));
+            return res.toString();
+        }
+        catch( NoSuchAlgorithmException e )
+        {
+            throw new Error(e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.Arrays;
+
+// Tilvik af Symmetry er samhverfugrúpa fimmferningaþrautar, þ.e.
+// þeir snúningar og þær speglanir rétthyrnda borðsins sem varpa
+// hverjum reit á reit með sama staf, þ.e. auðum reitum á auða reiti
+// og fullum reitum á fulla reiti með sama tákni.  Þá er mynd lausnar
+// undir vörpun líka lausn á sama borði.
+//
+// Vörpunum er gefið númer g, 0 <= g < 8, og reitur (x,y) á borði með
+// rows línum og cols dálkum fer í
+//   g=0: (x,y)                 g=4: (y,x)
+//   g=1: (x,cols-1-y)          g=5: (rows-1-y,x)
+//   g=2: (rows-1-x,y)          g=6: (y,cols-1-x)
+//   g=3: (rows-1-x,cols-1-y)   g=7: (rows-1-y,cols-1-x)
+// Varpanir 4 til 7 koma aðeins til greina ef borðið er ferningur.
+
+final class Symmetry
+{
+    final int rows, cols;
+    final int[] group;
+    // Fastayrðing gagna.
+    //  Borðið hefur rows línur og cols dálka og group inniheldur
+    //  númer allra varpana sem varpa borðinu á sjálft sig, í vaxandi
+    //  röð.  group[0] er alltaf 0, þ.e. hlutlausa vörpunin.
+
+    // Notkun: Symmetry s = new Symmetry(board);
+    // Fyrir:  board er char[][] með a.m.k. eina línu.
+    // Eftir:  s er samhverfugrúpa board.  Ef línur board eru ekki allar
+    //         jafnlangar þá inniheldur grúpan aðeins hlutlausu vörpunina.
+    Symmetry( char[][] board )
+    {
+        rows = board.length;
+        cols = board[0].length;
+        boolean rect = true;
+        for( char[] line: board ) rect = rect && line.length == cols;
+        int[] g = new int[8];
+        int n = 0;
+        g[n++] = 0;
+        for( int k=1 ; k!=8 ; k++ )
+        {
+            if( !rect || (k >= 4 && rows != cols) ) continue;
+            boolean same = true;
+            for( int x=0 ; x!=rows && same ; x++ )
+                for( int y=0 ; y!=cols && same ; y++ )
+                    same = board[x][y] == board[mapX(k,x,y)][mapY(k,x,y)];
+            if( same ) g[n++] = k;
+        }
+        group = Arrays.copyOf(g,n);
+    }
+
+    // Notkun: int x2 = s.mapX(g,x,y);
+    // Fyrir:  (x,y) er reitur á borðinu, g er vörpun sem á við borðið.
+    // Eftir:  x2 er línunúmer myndar (x,y) undir vörpun g.
+    int mapX( int g, int x, int y )
+    {
+        switch( g )
+        {
+        case 0: case 1: return x;
+        case 2: case 3: return rows-1-x;
+        case 4: case 6: return y;
+        default: return rows-1-y;
+        }
+    }
+
+    // Notkun: int y2 = s.mapY(g,x,y);
+    // Fyrir:  (x,y) er reitur á borðinu, g er vörpun sem á við borðið.
+    // Eftir:  y2 er dálknúmer myndar (x,y) undir vörpun g.
+    int mapY( int g, int x, int y )
+    {
+        switch( g )
+        {
+        case 0: case 2: return y;
+        case 1: case 3: return cols-1-y;
+        case 4: case 5: return x;
+        default: return cols-1-x;
+        }
+    }
+
+    // Notkun: int k2 = s.map(g,k);
+    // Fyrir:  k er númer reits eins og í BitBoard, þ.e. y*rows+x.
+    // Eftir:  k2 er númer myndar reitsins undir vörpun g.
+    int map( int g, int k )
+    {
+        int x = k%rows, y = k/rows;
+        return mapY(g,x,y)*rows+mapX(g,x,y);
+    }
+
+    // Notkun: String[] b2 = s.apply(g,b);
+    // Fyrir:  b er borð af sömu stærð og borðið sem s á við.
+    // Eftir:  b2 er nýtt borð sem er mynd b undir vörpun g.
+    String[] apply( int g, String[] b )
+    {
+        char[][] r = new char[rows][cols];
+        for( int x=0 ; x!=rows ; x++ )
+            for( int y=0 ; y!=cols ; y++ )
+                r[mapX(g,x,y)][mapY(g,x,y)] = b[x].charAt(y);
+        String[] res = new String[rows];
+        for( int x=0 ; x!=rows ; x++ ) res[x] = new String(r[x]);
+        return res;
+    }
+
+    // Notkun: int c = Symmetry.compare(a,b);
+    // Fyrir:  a og b eru borð af sömu stærð.
+    // Eftir:  c < 0, c == 0 eða c > 0 eftir því hvort a kemur á
+    //         undan b, er jafnt b eða kemur á eftir b í stafrófsröð
+    //         þar sem lína fyrir línu er borin saman.
+    static int compare( String[] a, String[] b )
+    {
+        for( int x=0 ; x!=a.length ; x++ )
+        {
+            int c = a[x].compareTo(b[x]);
+            if( c != 0 ) return c;
+        }
+        return 0;
+    }
+
+    // Notkun: boolean ok = s.isCanonical(b,gs);
+    // Fyrir:  b er lausn á borðinu, gs er listi af vörpunum í grúpunni.
+    // Eftir:  ok er satt þá og því aðeins að b komi ekki á eftir
+    //         myndum sínum undir vörpununum í gs.
+    boolean isCanonical( String[] b, int[] gs )
+    {
+        for( int g: gs )
+            if( g != 0 && compare(apply(g,b),b) < 0 ) return false;
+        return true;
+    }
+
+    // Notkun: String[][] all = s.orbit(b);
+    // Fyrir:  b er lausn á borðinu.
+    // Eftir:  all inniheldur allar ólíkar myndir b undir grúpunni,
+    //         fyrst b sjálfa.
+    String[][] orbit( String[] b )
+    {
+        String[][] res = new String[group.length][];
+        int n = 0;
+        for( int g: group )
+        {
+            String[] b2 = g==0 ? b : apply(g,b);
+            boolean seen = false;
+            for( int i=0 ; i!=n && !seen ; i++ ) seen = compare(res[i],b2) == 0;
+            if( !seen ) res[n++] = b2;
+        }
+        return Arrays.copyOf(res,n);
+    }
+}
@@ -0,0 +1,94 @@
+package is.ingimarsson.pentosolver;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+// Tilvik af TreeEstimate er mat á stærð leitartrésins fyrir þraut og
+// fjölda lausna hennar, fengið án þess að leysa hana.
+//
+// Matið notar aðferð Knuths (Estimating the efficiency of backtrack
+// programs, 1975): farin er slembin leið frá rót leitartrésins niður í
+// lauf, þar sem í hverjum hnút er valin ein af greinunum af handahófi
+// með jöfnum líkum.  Ef hnútarnir á leiðinni hafa d1, d2, ... greinar
+// þá er 1+d1+d1*d2+... óbjagað mat á fjölda hnúta í trénu, og d1*d2*...
+// óbjagað mat á fjölda lausna ef laufið er lausn (annars 0).  Meðaltal
+// margra slíkra leiða er notað og staðalskekkja þess gefin með.
+//
+// Tréð er það sem Pento.countSolutions og sjálfgefin leit
+// Pento.makeSolutions fara yfir, þ.e. Engine.BITS með fyrsta auða reit
+// og klippingu dauðra svæða, svo nodes er sambærilegt við
+// SearchStats.getNodes() fyrir slíka leit.  Hver leið kostar aðeins
+// eina umferð niður tréð, svo nokkur þúsund leiðir taka brot úr
+// sekúndu jafnvel á þrautum sem tæki daga að leysa.  Dreifing matanna
+// er þó mikil á óreglulegum trjám og þá þarf margar leiðir.  Sérstaklega
+// er mat á fjölda lausna ónákvæmt þegar fáar leiðir enda í lausn, og það
+// er oft 0 á stórum þrautum; mat á fjölda hnúta er mun stöðugra.
+
+public final class TreeEstimate
+{
+    public final int probes;
+    public final double nodes;
+    public final double solutions;
+    public final double nodesError;
+    public final double solutionsError;
+    // Fastayrðing gagna.
+    //  nodes og solutions eru meðaltöl probes mata á fjölda hnúta og
+    //  lausna, og nodesError og solutionsError eru staðalskekkjur
+    //  meðaltalanna.
+
+    private TreeEstimate( int probes, double nodes, double solutions, double nodesError, double solutionsError )
+    {
+        this.probes = probes;
+        this.nodes = nodes;
+        this.solutions = solutions;
+        this.nodesError = nodesError;
+        this.solutionsError = solutionsError;
+    }
+
+    // Notkun: TreeEstimate e = TreeEstimate.of(probes,seed,board);
+    // Fyrir:  probes >= 1, board er strengjafylki og ekkert sæti
+    //         inniheldur null.
+    // Eftir:  e er mat á stærð leitartrésins fyrir board og fjölda
+    //         lausna á henni, fengið með probes slembnum leiðum.  Sama
+    //         seed gefur alltaf sama mat.  Leitað er með Pento.sets(board)
+    //         heilum settum.
+    public static TreeEstimate of( int probes, long seed, String... board )
+    {
+        if( probes < 1 ) throw new Error();
+        BitSearch s = new BitSearch(new BitBoard(Pento.library(),Pento.makeBoard(board)),null,false);
+        int[] copies = new int[Pento.library().length];
+        Arrays.fill(copies,Pento.sets(board));
+        s.copies(copies);
+        Random r = new Random(seed);
+        double n = 0, nn = 0, k = 0, kk = 0;
+        for( int i=0 ; i!=probes ; i++ )
+        {
+            double[] e = s.probe(r);
+            n += e[0];
+            nn += e[0]*e[0];
+            k += e[1];
+            kk += e[1]*e[1];
+        }
+        n /= probes;
+        k /= probes;
+        return new TreeEstimate(probes,n,k,error(nn,n,probes),error(kk,k,probes));
+    }
+
+    // Notkun: double se = error(sq,mean,n);
+    // Fyrir:  n >= 1, sq er summa ferninga n mælinga og mean meðaltal
+    //         þeirra.
+    // Eftir:  se er staðalskekkja meðaltalsins, eða 0 ef n er 1.
+    private static double error( double sq, double mean, int n )
+    {
+        if( n == 1 ) return 0;
+        double var = Math.max(sq/n-mean*mean,0)*n/(n-1);
+        return Math.sqrt(var/n);
+    }
+
+    public String toString()
+    {
+        return String.format(Locale.ROOT,"~%.3g nodes (+/-%.2g), ~%.3g solutions (+/-%.2g), %d probes",
+                             nodes,nodesError,solutions,solutionsError,probes);
+    }
+}
@@ -1,7 +1,10 @@
 package is.ingimarsson.pentosolver;
 
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import javax.swing.SwingWorker;
+
 import org.junit.Test;
 
 /**
@@ -17,4 +20,45 @@ public class AppTest
     {
         assertTrue( true );
     }
+
+    /**
+     * A background search that fails reports its error, rather than
+     * looking like a search that found no solutions, and one that
+     * finishes or is stopped reports none.
+     */
+    @Test
+    public void reportsSearchFailure()
+    {
+        // The pager encodes solutions for a different board, so storing
+        // them fails on the worker thread, as a failing search would.
+        SolutionPager broken = new SolutionPager(PentoTest.BOARD_CROSS, Pento.makeSolutions(PentoTest.BOARD_3X20));
+        SwingWorker<Void,Void> w = searcher(broken);
+        w.run();
+        assertTrue( App.failure(w) instanceof IllegalArgumentException );
+        assertTrue( broken.size() == 0 && !broken.isClosed() );
+        broken.close();
+
+        SolutionPager ok = new SolutionPager(PentoTest.BOARD_3X20, Pento.makeSolutions(PentoTest.BOARD_3X20));
+        w = searcher(ok);
+        ok.want(100);
+        w.run();
+        assertNull( App.failure(w) );
+        assertTrue( ok.isComplete() );
+
+        w = searcher(ok);
+        w.cancel(true);
+        assertNull( App.failure(w) );
+    }
+
+    static SwingWorker<Void,Void> searcher( SolutionPager p )
+    {
+        return new SwingWorker<Void,Void>()
+            {
+                protected Void doInBackground() throws InterruptedException
+                {
+                    p.run(n -> {});
+                    return null;
+                }
+            };
+    }
 }
@@ -0,0 +1,70 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for the headless batch solver.
+ */
+public class BatchTest
+{
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    static String run( int status, String... args ) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        assertEquals( status, Batch.run(args,new PrintStream(out,true,"UTF-8"),new PrintStream(err,true,"UTF-8")) );
+        return out.toString("UTF-8");
+    }
+
+    void write( String name, String... board ) throws Exception
+    {
+        Files.write( new File(dir.getRoot(),name).toPath(), String.join("\n",board).getBytes("UTF-8") );
+    }
+
+    /**
+     * Every .pento file in a directory is solved and reported, with
+     * the requested number of solutions, and a broken file is reported
+     * as an error without stopping the others.
+     */
+    @Test
+    public void solvesDirectory() throws Exception
+    {
+        write( "a.pento", PentoTest.BOARD_3X20 );
+        write( "b.pento", PentoTest.BOARD_CROSS );
+        write( "c.pento" );
+        write( "d.txt", PentoTest.BOARD_3X20 );
+        String out = run( 1, "-threads", "2", "-solutions", "1", dir.getRoot().getPath() );
+        assertEquals( (1+3+1)+(1+9+1)+1, out.split("\n",-1).length-1 );
+        assertTrue( out.matches("(?s).*a\\.pento: 8 solutions, \\d+ ms\n.*") );
+        assertTrue( out.matches("(?s).*b\\.pento: 160 solutions, \\d+ ms\n.*") );
+        assertTrue( out.contains("c.pento: error:") );
+        assertFalse( out.contains("d.txt") );
+
+        out = run( 0, dir.getRoot().getPath()+File.separator+"[ab].pento" );
+        assertEquals( 2, out.split("\n",-1).length-1 );
+        run( 2 );
+    }
+
+    /**
+     * A board with 120 empty cells is solved with two whole sets.
+     */
+    @Test
+    public void solvesTwoSets() throws Exception
+    {
+        write( "e.pento", PentoTest.holes() );
+        assertTrue( run(0,dir.getRoot().getPath()).matches("(?s).*e\\.pento: 1 solutions, \\d+ ms\n.*") );
+    }
+}
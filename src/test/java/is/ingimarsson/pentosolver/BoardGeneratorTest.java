@@ -0,0 +1,64 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the solvable board generator.
+ */
+public class BoardGeneratorTest
+{
+    /**
+     * Every generated board has exactly 60 empty cells per set, comes
+     * with a tiling that uses each piece the right number of times, and
+     * the solver agrees that it is solvable.
+     */
+    @Test
+    public void boardsAreSolvable()
+    {
+        Random r = new Random(1);
+        int[][] shapes = { {6,10,1}, {8,8,1}, {10,10,1}, {20,20,1}, {12,15,2} };
+        for( int[] shape: shapes )
+        {
+            BoardGenerator g = new BoardGenerator(shape[0],shape[1]);
+            for( int i=0 ; i!=5 ; i++ )
+            {
+                String[] s = g.next(r,shape[2]);
+                assertNotNull( s );
+                assertEquals( shape[0], s.length );
+                int[] count = new int[128];
+                for( String line: s )
+                {
+                    assertEquals( shape[1], line.length() );
+                    for( int j=0 ; j!=line.length() ; j++ ) count[line.charAt(j)]++;
+                }
+                for( char c: "FILNPTUVWXYZ".toCharArray() ) assertEquals( 5*shape[2], count[c] );
+                assertEquals( shape[0]*shape[1]-60*shape[2], count['*'] );
+
+                String[] board = BoardGenerator.puzzle(s);
+                assertNotNull( new BitBoard(Pento.library(),Pento.makeBoard(board)).tiling(s) );
+                if( shape[2] == 1 ) assertTrue( Pento.countSolutions(1,board) > 0 );
+            }
+        }
+    }
+
+    /**
+     * The same seed gives the same boards, and boards too small for the
+     * pieces give null.
+     */
+    @Test
+    public void seededAndBounded()
+    {
+        assertArrayEquals( new BoardGenerator(9,9).next(new Random(7),1),
+                           new BoardGenerator(9,9).next(new Random(7),1) );
+        assertNull( new BoardGenerator(7,8).next(new Random(1),1) );
+        assertNull( new BoardGenerator(1,60).next(new Random(1),1) );
+    }
+}
@@ -0,0 +1,68 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the editor's board model.
+ */
+public class BoardModelTest
+{
+    /**
+     * The empty-cell count follows every kind of change, and listeners
+     * hear about each changed cell, or about the whole board.
+     */
+    @Test
+    public void tracksEmptyCellsAndChanges()
+    {
+        BoardModel m = new BoardModel(PentoTest.BOARD_8X8);
+        List<String> events = new ArrayList<String>();
+        m.addListener(new BoardModel.Listener()
+            {
+                public void cellChanged( int x, int y )
+                {
+                    events.add(x+","+y);
+                }
+
+                public void boardChanged()
+                {
+                    events.add("board");
+                }
+            });
+        assertEquals( 60, m.countEmpty() );
+        assertArrayEquals( PentoTest.BOARD_8X8, m.toStrings() );
+
+        m.set(0,0,'*');
+        m.set(0,0,'*');
+        m.set(4,3,' ');
+        assertEquals( 60, m.countEmpty() );
+        assertEquals( "[0,0, 4,3]", events.toString() );
+
+        String[] solution = PentoTest.solve(Pento.makeSolutions(PentoTest.BOARD_8X8)).get(0);
+        events.clear();
+        m.setAll(solution);
+        assertEquals( 0, m.countEmpty() );
+        assertEquals( 61, events.size() );
+        assertArrayEquals( solution, m.toStrings() );
+
+        events.clear();
+        m.clear(6,10);
+        assertEquals( 60, m.countEmpty() );
+        m.randomize(new Random(1),0.25);
+        int empty = 0;
+        for( String line: m.toStrings() )
+            for( int i=0 ; i!=line.length() ; i++ )
+                if( line.charAt(i) == ' ' ) empty++;
+        assertEquals( empty, m.countEmpty() );
+        m.setAll(new String[]{ "  ", " " });
+        assertArrayEquals( new String[]{ "  ", " *" }, m.toStrings() );
+        assertEquals( 3, m.countEmpty() );
+        assertEquals( "[board, board, board]", events.toString() );
+    }
+}
@@ -0,0 +1,75 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for checkpointed enumeration.
+ */
+public class CheckpointTest
+{
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    /**
+     * An enumeration that stops halfway resumes from its last
+     * checkpoint.  A consumer that passes in how many solutions it kept
+     * gets every solution exactly once, in order, including those found
+     * after the checkpoint.  A finished enumeration returns its count
+     * at once.
+     */
+    @Test
+    public void resumesWhereItStopped() throws Exception
+    {
+        for( Pento.Branching b: Pento.Branching.values() )
+        {
+            List<String[]> all = PentoTest.solve( Pento.makeSolutions(PentoTest.BOARD_8X8).branching(b) );
+            for( long millis: new long[]{ 0, 1000000 } )
+            {
+                File f = new File(dir.getRoot(),b+"-"+millis+".ckpt");
+                List<String[]> got = new ArrayList<String[]>();
+                try
+                {
+                    Pento.makeSolutions(PentoTest.BOARD_8X8).branching(b).enumerate( f.toPath(), millis, 0,
+                        s->
+                        {
+                            if( got.size() == all.size()/2 ) throw new IllegalStateException();
+                            got.add(s);
+                        });
+                    fail();
+                }
+                catch( IllegalStateException e )
+                {
+                }
+                Checkpoint c = Checkpoint.read(f.toPath());
+                if( millis == 0 ) assertTrue( c.solutions > 0 && c.solutions <= got.size() );
+                else assertNull( c );
+                assertEquals( all.size(), Pento.makeSolutions(PentoTest.BOARD_8X8).branching(b).enumerate(f.toPath(),millis,got.size(),got::add) );
+                PentoTest.assertSameSolutions( all, got );
+                assertEquals( all.size(), Pento.makeSolutions(PentoTest.BOARD_8X8).branching(b).enumerate(f.toPath(),millis,all.size(),s->fail()) );
+            }
+        }
+    }
+
+    /**
+     * A checkpoint is not used for another board.
+     */
+    @Test(expected=IOException.class)
+    public void rejectsOtherSearch() throws Exception
+    {
+        File f = new File(dir.getRoot(),"cross.ckpt");
+        assertEquals( 160, Pento.makeSolutions(PentoTest.BOARD_CROSS).enumerate(f.toPath(),1000,0,null) );
+        Pento.makeSolutions(PentoTest.BOARD_8X8).enumerate(f.toPath(),1000,0,null);
+    }
+}
@@ -0,0 +1,82 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for splitting a search into jobs.
+ */
+public class JobsTest
+{
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    static String run( int status, String... args ) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        assertEquals( status, Jobs.run(args,new PrintStream(out,true,"UTF-8"),new PrintStream(err,true,"UTF-8")) );
+        return out.toString("UTF-8");
+    }
+
+    /**
+     * Splitting a board into job files, solving each job and merging
+     * the results gives the same solutions, in the same order, as a
+     * single search.
+     */
+    @Test
+    public void mergedJobsMatchSingleRun() throws Exception
+    {
+        File board = new File(dir.getRoot(),"8x8.pento");
+        Files.write( board.toPath(), String.join("\n",PentoTest.BOARD_8X8).getBytes("UTF-8") );
+        File jobs = new File(dir.getRoot(),"jobs");
+        run( 0, "split", "-depth", "2", board.getPath(), jobs.getPath() );
+        String[] names = jobs.list();
+        Arrays.sort(names);
+        List<String> results = new ArrayList<String>();
+        results.add("merge");
+        results.add("-solutions");
+        for( String n: names )
+        {
+            String r = new File(dir.getRoot(),n+".result").getPath();
+            run( 0, "work", "-solutions", new File(jobs,n).getPath(), r );
+            results.add(r);
+        }
+        StringBuilder expected = new StringBuilder("520 solutions\n");
+        for( String[] b: Pento.makeSolutions(PentoTest.BOARD_8X8) )
+            expected.append(String.join("\n",b)).append("\n\n");
+        assertEquals( expected.toString(), run(0,results.toArray(new String[0])) );
+        results.set(1,new File(dir.getRoot(),"missing.result").getPath());
+        assertEquals( "520 solutions\n", run(1,results.toArray(new String[0])) );
+    }
+
+    /**
+     * The counts of the jobs add up to the count of the whole search,
+     * also with symmetry reduction, several piece sets and fewest-options
+     * branching.
+     */
+    @Test
+    public void jobCountsAddUp()
+    {
+        Pento.MyIterable[] specs = { Pento.makeSolutions(PentoTest.BOARD_CROSS).distinct(false),
+                                     Pento.makeSolutions(PentoTest.BOARD_CROSS).branching(Pento.Branching.FEWEST_OPTIONS),
+                                     Pento.makeSolutions("    ","    ","    ","   *").copies('L',3) };
+        for( Pento.MyIterable spec: specs )
+        {
+            long n = 0;
+            for( String job: spec.split(3) ) n += Pento.job(job).count();
+            assertEquals( spec.count(), n );
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the board component.
+ */
+public class PentoComponentTest
+{
+    /**
+     * Redrawing only the cells that changed gives the same picture as
+     * drawing the whole board again, on boards with cells both large
+     * and too small for a border.
+     */
+    @Test
+    public void dirtyCellsMatchFullRender()
+    {
+        Random r = new Random(1);
+        for( int n: new int[]{ 8, 100, 300 } )
+        {
+            String[] board = random(r,n);
+            PentoComponent c = new PentoComponent(700,500);
+            c.setBoard(board.clone());
+            paint(c);
+            for( int i=0 ; i!=50 ; i++ )
+            {
+                int x = r.nextInt(n), y = r.nextInt(n);
+                c.setBlock(x,y,c.getBlock(x,y) == '*' ? ' ' : '*');
+            }
+            c.setBoard(random(r,n));
+            PentoComponent fresh = new PentoComponent(700,500);
+            fresh.setBoard(c.getBoard().clone());
+            assertArrayEquals( paint(fresh), paint(c) );
+        }
+    }
+
+    static String[] random( Random r, int n )
+    {
+        String pieces = "FILPNTUVWXYZ* ";
+        String[] res = new String[n];
+        char[] line = new char[n];
+        for( int y=0 ; y!=n ; y++ )
+        {
+            for( int x=0 ; x!=n ; x++ ) line[x] = pieces.charAt(r.nextInt(pieces.length()));
+            res[y] = new String(line);
+        }
+        return res;
+    }
+
+    static int[] paint( PentoComponent c )
+    {
+        BufferedImage img = new BufferedImage(700,500,BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        c.paintComponent(g);
+        g.dispose();
+        return img.getRGB(0,0,700,500,null,0,700);
+    }
+}
@@ -0,0 +1,338 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the Pento solver engines.
+ */
+public class PentoTest
+{
+    static final String[] BOARD_3X20 = { "                    "
+                                       , "                    "
+                                       , "                    "
+                                       };
+
+    static final String[] BOARD_8X8 = { "        "
+                                      , "        "
+                                      , "        "
+                                      , "   **   "
+                                      , "   **   "
+                                      , "        "
+                                      , "        "
+                                      , "        "
+                                      };
+
+    static final String[] BOARD_CROSS = { "***   ***"
+                                        , "***   ***"
+                                        , "***   ***"
+                                        , "         "
+                                        , "         "
+                                        , "         "
+                                        , "***   ***"
+                                        , "***   ***"
+                                        , "***   ***"
+                                        };
+
+    /**
+     * A board of 120 empty cells made of two holes shaped like each
+     * piece, so two whole sets tile it in exactly one way and one set
+     * cannot tile it at all.
+     */
+    static String[] holes()
+    {
+        char[][] b = new char[6][24*6];
+        for( char[] row: b ) Arrays.fill(row,'*');
+        Pento[][] lib = Pento.library();
+        for( int i=0 ; i!=24 ; i++ )
+        {
+            Pento p = lib[i/2][0];
+            int x0 = 0, y0 = 0;
+            for( int k=0 ; k!=5 ; k++ )
+            {
+                x0 = Math.min(x0,p.getX(k));
+                y0 = Math.min(y0,p.getY(k));
+            }
+            for( int k=0 ; k!=5 ; k++ ) b[1+p.getX(k)-x0][i*6+1+p.getY(k)-y0] = ' ';
+        }
+        String[] res = new String[b.length];
+        for( int x=0 ; x!=b.length ; x++ ) res[x] = new String(b[x]);
+        return res;
+    }
+
+    static List<String[]> solve( Pento.MyIterable it )
+    {
+        List<String[]> res = new ArrayList<String[]>();
+        for( String[] b: it ) res.add(b);
+        return res;
+    }
+
+    static void assertSameSolutions( List<String[]> expected, List<String[]> actual )
+    {
+        assertEquals( expected.size(), actual.size() );
+        for( int i=0 ; i!=expected.size() ; i++ )
+            assertArrayEquals( expected.get(i), actual.get(i) );
+    }
+
+    /**
+     * The bitboard engine finds the same solutions, in the same order,
+     * as the char[][] engine, both on a board that fits in one long
+     * and on a board that needs several words.
+     */
+    @Test
+    public void bitsMatchesChars()
+    {
+        for( String[] board: new String[][]{ BOARD_3X20, BOARD_CROSS } )
+        {
+            List<String[]> chars = solve( Pento.makeSolutions(board).engine(Pento.Engine.CHARS) );
+            List<String[]> bits = solve( Pento.makeSolutions(board).engine(Pento.Engine.BITS) );
+            assertSameSolutions( chars, bits );
+        }
+        assertEquals( 8, solve(Pento.makeSolutions(BOARD_3X20)).size() );
+        assertEquals( 160, solve(Pento.makeSolutions(BOARD_CROSS)).size() );
+    }
+
+    static Set<String> asSet( List<String[]> solutions )
+    {
+        Set<String> res = new TreeSet<String>();
+        for( String[] b: solutions ) res.add(Arrays.toString(b));
+        return res;
+    }
+
+    /**
+     * The dancing links engine finds the same solutions as the
+     * char[][] engine, although in a different order.
+     */
+    @Test
+    public void dlxMatchesChars()
+    {
+        for( String[] board: new String[][]{ BOARD_3X20, BOARD_CROSS } )
+        {
+            List<String[]> chars = solve( Pento.makeSolutions(board).engine(Pento.Engine.CHARS) );
+            List<String[]> dlx = solve( Pento.makeSolutions(board).engine(Pento.Engine.DLX) );
+            assertEquals( chars.size(), dlx.size() );
+            assertEquals( asSet(chars), asSet(dlx) );
+        }
+    }
+
+    /**
+     * Branching on the most constrained cell finds the same solutions
+     * as branching on the first empty cell, also in parallel and in
+     * symmetry-reduced searches.
+     */
+    @Test
+    public void fewestOptionsMatchesFirstEmpty()
+    {
+        Pento.Branching mrv = Pento.Branching.FEWEST_OPTIONS;
+        for( String[] board: new String[][]{ BOARD_3X20, BOARD_8X8, BOARD_CROSS } )
+        {
+            List<String[]> first = solve( Pento.makeSolutions(board) );
+            List<String[]> fewest = solve( Pento.makeSolutions(board).branching(mrv) );
+            List<String[]> par = solve( Pento.makeSolutions(board).branching(mrv).parallel(4) );
+            assertEquals( first.size(), fewest.size() );
+            assertEquals( asSet(first), asSet(fewest) );
+            assertEquals( asSet(first), asSet(par) );
+            List<String[]> expanded = solve( Pento.makeSolutions(board).branching(mrv).distinct(true) );
+            assertEquals( asSet(first), asSet(expanded) );
+        }
+        assertEquals( 65, solve(Pento.makeSolutions(BOARD_8X8).branching(mrv).distinct(false)).size() );
+    }
+
+    /**
+     * With several copies of a piece, each tiling is found once, and
+     * tilings that only differ in how two copies side by side split
+     * a region are different tilings.  Larger boards can be tiled
+     * with whole sets.
+     */
+    @Test
+    public void multiplePieceSets() throws InterruptedException
+    {
+        Pento.MyIterable two = Pento.makeSolutions("          ").copies(0).copies('I',2);
+        assertEquals( 1, solve(two).size() );
+        Pento.MyIterable ls = Pento.makeSolutions("     ","     ").copies(0).copies('L',2);
+        assertEquals( 2, solve(ls).size() );
+        assertEquals( 2, Pento.makeSolutions("     ","     ").copies(0).copies('L',2).count() );
+        assertEquals( 1, solve(Pento.makeSolutions(holes()).copies(2)).size() );
+        assertEquals( 0, Pento.makeSolutions(holes()).count() );
+        assertEquals( 2, Pento.sets(holes()) );
+        assertEquals( 8, solve(Pento.makeSolutions(BOARD_3X20).copies(1)).size() );
+        for( Pento.Branching br: Pento.Branching.values() )
+        {
+            String[] board = { "                    "
+                             , "                    "
+                             , "                    "
+                             , "                    "
+                             , "                    "
+                             , "                    "
+                             };
+            Set<String> seen = new TreeSet<String>();
+            try( Pento.MyIterator it = Pento.makeSolutions(board).copies(2).branching(br).iterator() )
+            {
+                for( int n=0 ; n!=20 && it.hasNext() ; n++ )
+                {
+                    String[] b = it.next();
+                    assertTrue( seen.add(Arrays.toString(b)) );
+                    int[] cells = new int[128];
+                    for( String line: b )
+                        for( char c: line.toCharArray() ) cells[c]++;
+                    for( char c: "FILPNTUVWXYZ".toCharArray() ) assertEquals( 10, cells[c] );
+                }
+            }
+            assertEquals( 20, seen.size() );
+        }
+    }
+
+    /**
+     * A parallel search finds the same solutions as a sequential one.
+     */
+    @Test
+    public void parallelMatchesSequential()
+    {
+        for( String[] board: new String[][]{ BOARD_3X20, BOARD_CROSS } )
+        {
+            List<String[]> seq = solve( Pento.makeSolutions(board) );
+            List<String[]> par = solve( Pento.makeSolutions(board).parallel(4) );
+            assertEquals( seq.size(), par.size() );
+            assertEquals( asSet(seq), asSet(par) );
+        }
+    }
+
+    /**
+     * Counting finds as many solutions as enumerating, and stops at
+     * the limit.
+     */
+    @Test
+    public void countSolutions()
+    {
+        assertEquals( 8, Pento.countSolutions(BOARD_3X20) );
+        assertEquals( 160, Pento.countSolutions(BOARD_CROSS) );
+        assertEquals( 5, Pento.countSolutions(5,BOARD_CROSS) );
+        assertEquals( 0, Pento.countSolutions(0,BOARD_CROSS) );
+        assertEquals( 0, Pento.countSolutions("      ","      ") );
+    }
+
+    /**
+     * A symmetry-reduced search finds one solution per class of
+     * rotated and reflected solutions, and expanding them gives back
+     * every solution.
+     */
+    @Test
+    public void distinctSolutions()
+    {
+        assertEquals( 2, solve(Pento.makeSolutions(BOARD_3X20).distinct(false)).size() );
+        assertEquals( 65, solve(Pento.makeSolutions(BOARD_8X8).distinct(false)).size() );
+        assertEquals( 20, solve(Pento.makeSolutions(BOARD_CROSS).distinct(false)).size() );
+        for( String[] board: new String[][]{ BOARD_3X20, BOARD_8X8, BOARD_CROSS } )
+        {
+            List<String[]> all = solve( Pento.makeSolutions(board) );
+            List<String[]> expanded = solve( Pento.makeSolutions(board).distinct(true) );
+            assertEquals( all.size(), expanded.size() );
+            assertEquals( asSet(all), asSet(expanded) );
+        }
+    }
+
+    /**
+     * Blocked cells keep their own characters, and a rotation or
+     * reflection that would move them to cells with other characters is
+     * not a symmetry, so expanding the distinct solutions still gives
+     * exactly the solutions of the board.
+     */
+    @Test
+    public void distinctKeepsBlockedCells()
+    {
+        for( String[] hole: new String[][]{ { "   ab   ", "   cd   " }, { "   ab   ", "   ab   " } } )
+        {
+            String[] board = BOARD_8X8.clone();
+            board[3] = hole[0];
+            board[4] = hole[1];
+            List<String[]> all = solve( Pento.makeSolutions(board) );
+            List<String[]> expanded = solve( Pento.makeSolutions(board).distinct(true) );
+            assertEquals( 520, all.size() );
+            assertEquals( asSet(all), asSet(expanded) );
+        }
+    }
+
+    static final String[] BOARD_6X10 = { "          "
+                                       , "          "
+                                       , "          "
+                                       , "          "
+                                       , "          "
+                                       , "          "
+                                       };
+
+    static boolean searching()
+    {
+        for( Map.Entry<Thread,StackTraceElement[]> e: Thread.getAllStackTraces().entrySet() )
+            for( StackTraceElement f: e.getValue() )
+                if( f.getClassName().endsWith("BitSearch") || f.getClassName().endsWith("DancingLinks") ) return true;
+        return false;
+    }
+
+    static void awaitStopped() throws InterruptedException
+    {
+        for( int i=0 ; i!=500 && searching() ; i++ ) Thread.sleep(10);
+        assertFalse( searching() );
+    }
+
+    /**
+     * Closing an iterator before all solutions are fetched stops its
+     * search, both when the search is blocked waiting for the consumer
+     * and when it is still searching.
+     */
+    @Test
+    public void closeStopsSearch() throws InterruptedException
+    {
+        for( Pento.Engine e: new Pento.Engine[]{ Pento.Engine.BITS, Pento.Engine.DLX } )
+        {
+            Pento.MyIterator it = Pento.makeSolutions(BOARD_6X10).engine(e).buffer(1).iterator();
+            assertTrue( it.hasNext() );
+            it.next();
+            it.close();
+            assertFalse( it.hasNext() );
+            awaitStopped();
+        }
+        for( int threads: new int[]{ 1, 4 } )
+        {
+            try( Pento.MyIterator it = Pento.makeSolutions(BOARD_6X10).parallel(threads).iterator() )
+            {
+                it.hasNext();
+            }
+            awaitStopped();
+        }
+    }
+
+    /**
+     * An iterator's progress never decreases, stays between 0 and 1
+     * and is 1 once all solutions are fetched, for sequential and
+     * parallel searches.
+     */
+    @Test
+    public void progressGrows()
+    {
+        for( int threads: new int[]{ 1, 3 } )
+        {
+            Pento.MyIterator it = Pento.makeSolutions(BOARD_8X8).parallel(threads).buffer(1).iterator();
+            double last = 0;
+            while( it.hasNext() )
+            {
+                it.next();
+                double f = it.progress();
+                assertTrue( f >= last && f <= 1 );
+                last = f;
+            }
+            assertEquals( 1, it.progress(), 1e-9 );
+            assertEquals( 0, it.remainingMillis() );
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the search instrumentation.  The build runs this
+ * class in its own JVM with -Dpentosolver.stats=true, and every other
+ * test with it off.
+ */
+public class SearchStatsTest
+{
+    /**
+     * Every engine counts the same solutions, and its counters are
+     * consistent with each other.  A parallel search counts as one
+     * search.
+     */
+    @Test
+    public void countsEveryEngine() throws Exception
+    {
+        SearchStats s = SearchStats.get();
+        assertTrue( s.isEnabled() );
+        for( Pento.Engine e: Pento.Engine.values() )
+        {
+            s.reset();
+            long n = PentoTest.solve( Pento.makeSolutions(PentoTest.BOARD_CROSS).engine(e) ).size();
+            assertEquals( 1, s.getSearches() );
+            assertEquals( n, s.getSolutions() );
+            assertTrue( s.getPlacementsSucceeded() <= s.getPlacementsTried() );
+            assertTrue( s.getBacktracks() > 0 );
+            long sum = 0;
+            for( long k: s.getDepthHistogram() ) sum += k;
+            assertEquals( s.getNodes(), sum );
+            assertEquals( s.getNodes(), s.getPlacementsSucceeded()+1 );
+        }
+        s.reset();
+        long n = PentoTest.solve( Pento.makeSolutions(PentoTest.BOARD_8X8).parallel(4) ).size();
+        assertEquals( 1, s.getSearches() );
+        assertEquals( n, s.getSolutions() );
+        assertEquals( s.getNodes(), s.getPlacementsSucceeded()+1 );
+        ObjectName name = new ObjectName("is.ingimarsson.pentosolver:type=SearchStats");
+        assertTrue( ManagementFactory.getPlatformMBeanServer().isRegistered(name) );
+    }
+
+    /**
+     * The totals grow while a long search is still running, for every
+     * engine, and not only when it ends.
+     */
+    @Test
+    public void flushesDuringSearch() throws Exception
+    {
+        SearchStats s = SearchStats.get();
+        for( Pento.Engine e: Pento.Engine.values() )
+        {
+            s.reset();
+            try( Pento.MyIterator it = Pento.makeSolutions(PentoTest.BOARD_6X10).engine(e).buffer(1).iterator() )
+            {
+                while( s.getNodes() == 0 && it.hasNext() ) it.next();
+                assertEquals( 0, s.getSearches() );
+                assertTrue( s.getNodes() > 0 );
+                assertTrue( s.getPlacementsSucceeded() > 0 );
+            }
+            // Closing stops the search, which then ends in its own thread.
+            while( s.getSearches() == 0 ) Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the compact solution format.
+ */
+public class SolutionFormatTest
+{
+    /**
+     * Every solution survives a trip through a writer and a reader, and
+     * takes two bytes per piece on boards with up to 65536 placements.
+     * Encoding the placements the search sends gives the same records
+     * as encoding its boards.
+     */
+    @Test
+    public void roundTrips() throws IOException, InterruptedException
+    {
+        for( Pento.MyIterable spec: new Pento.MyIterable[]{ Pento.makeSolutions(PentoTest.BOARD_8X8),
+                                                             Pento.makeSolutions(PentoTest.BOARD_CROSS),
+                                                             Pento.makeSolutions("          ").copies(0).copies('I',2) } )
+        {
+            List<String[]> all = PentoTest.solve(spec);
+            String[] board = all.get(0).clone();
+            for( int i=0 ; i!=board.length ; i++ ) board[i] = board[i].replaceAll("[A-Z]"," ");
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try( SolutionFormat.Writer w = new SolutionFormat.Writer(bytes,board) )
+            {
+                for( String[] s: all ) w.write(s);
+                assertEquals( all.size(), w.count() );
+            }
+            List<String[]> back = new ArrayList<String[]>();
+            try( SolutionFormat.Reader r = new SolutionFormat.Reader(new ByteArrayInputStream(bytes.toByteArray())) )
+            {
+                assertArrayEquals( board, r.format().board() );
+                assertTrue( r.format().recordSize() <= 2*all.get(0).length*all.get(0)[0].length()/5 );
+                for( String[] s=r.read() ; s!=null ; s=r.read() ) back.add(s);
+                assertNull( r.read() );
+            }
+            assertEquals( all.size(), back.size() );
+            for( int i=0 ; i!=all.size() ; i++ ) assertArrayEquals( all.get(i), back.get(i) );
+
+            SolutionFormat f = new SolutionFormat(board);
+            byte[] record = new byte[f.recordSize()];
+            ByteArrayOutputStream direct = new ByteArrayOutputStream();
+            spec.records((ps,n)->
+                {
+                    f.encode(ps,n,record,0);
+                    direct.write(record,0,record.length);
+                });
+            byte[] written = bytes.toByteArray();
+            assertArrayEquals( Arrays.copyOfRange(written,written.length-direct.size(),written.length), direct.toByteArray() );
+            assertEquals( all.size()*record.length, direct.size() );
+        }
+    }
+
+    /**
+     * Boards that are not solutions, and streams that are not solution
+     * streams, are rejected.
+     */
+    @Test
+    public void rejectsBadInput() throws IOException
+    {
+        SolutionFormat f = new SolutionFormat(PentoTest.BOARD_8X8);
+        try
+        {
+            f.encode(PentoTest.BOARD_8X8);
+            fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+        }
+        try
+        {
+            new SolutionFormat.Reader(new ByteArrayInputStream(new byte[]{ 1, 2, 3, 4, 5 }));
+            fail();
+        }
+        catch( IOException e )
+        {
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try( SolutionFormat.Writer w = new SolutionFormat.Writer(bytes,PentoTest.BOARD_8X8) )
+        {
+            w.write(PentoTest.solve(Pento.makeSolutions(PentoTest.BOARD_8X8)).get(0));
+        }
+        byte[] cut = Arrays.copyOf(bytes.toByteArray(),bytes.size()-1);
+        try( SolutionFormat.Reader r = new SolutionFormat.Reader(new ByteArrayInputStream(cut)) )
+        {
+            r.read();
+            fail();
+        }
+        catch( IOException e )
+        {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the solution pager behind the solution window.
+ */
+public class SolutionPagerTest
+{
+    /**
+     * The pager finds only AHEAD solutions past the one asked for,
+     * returns the same solutions as the iterator, in order, and knows
+     * when it has them all.
+     */
+    @Test
+    public void pagesLazily() throws InterruptedException
+    {
+        String[] board = PentoTest.BOARD_6X10;
+        List<String[]> all = PentoTest.solve(Pento.makeSolutions(board));
+        assertTrue( all.size() > 2*SolutionPager.AHEAD );
+        try( SolutionPager p = new SolutionPager(board,Pento.makeSolutions(board)) )
+        {
+            Thread t = new Thread(()->
+                {
+                    try
+                    {
+                        p.run(n -> {});
+                    }
+                    catch( InterruptedException e )
+                    {
+                    }
+                });
+            t.start();
+            while( p.size() < SolutionPager.AHEAD ) Thread.sleep(1);
+            Thread.sleep(50);
+            assertEquals( SolutionPager.AHEAD, p.size() );
+            assertFalse( p.isComplete() );
+            p.want(all.size());
+            t.join();
+            assertTrue( p.isComplete() );
+            assertFalse( p.isClosed() );
+            assertEquals( all.size(), p.size() );
+            for( int i=0 ; i!=all.size() ; i++ ) assertArrayEquals( all.get(i), p.get(i) );
+        }
+    }
+
+    /**
+     * Closing the pager stops the thread searching for solutions and
+     * keeps the ones already found.
+     */
+    @Test
+    public void stops() throws InterruptedException
+    {
+        String[] board = PentoTest.BOARD_6X10;
+        SolutionPager p = new SolutionPager(board,Pento.makeSolutions(board));
+        Thread t = new Thread(()->
+            {
+                try
+                {
+                    p.run(n -> {});
+                }
+                catch( InterruptedException e )
+                {
+                }
+            });
+        t.start();
+        while( p.size() < 10 ) Thread.sleep(1);
+        p.close();
+        t.join();
+        assertTrue( p.isClosed() );
+        assertFalse( p.isComplete() );
+        assertTrue( p.size() >= 10 );
+        assertArrayEquals( PentoTest.solve(Pento.makeSolutions(board)).get(9), p.get(9) );
+    }
+}
@@ -0,0 +1,112 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the queue between a search and its iterator.
+ */
+public class SolutionQueueTest
+{
+    /**
+     * Solutions come out in order, in batches, and the consumer sees
+     * the end of the search once they are all taken.
+     */
+    @Test
+    public void handsOffInOrder() throws InterruptedException
+    {
+        SolutionQueue q = new SolutionQueue(2);
+        Thread t = new Thread(()->
+            {
+                try
+                {
+                    for( int i=0 ; i!=10 ; i++ ) q.put(new String[]{ ""+i });
+                    q.finish(null);
+                }
+                catch( InterruptedException e )
+                {
+                }
+            });
+        t.start();
+        for( int i=0 ; i!=10 ; i++ )
+        {
+            assertTrue( q.hasNext() );
+            assertArrayEquals( new String[]{ ""+i }, q.next() );
+        }
+        assertFalse( q.hasNext() );
+        t.join();
+    }
+
+    /**
+     * Closing the queue from another thread wakes a consumer that waits
+     * for a search that never calls finish, as when the search is
+     * cancelled before it starts, and releases a producer that waits
+     * for room.
+     */
+    @Test
+    public void closeWakesBothSides() throws InterruptedException
+    {
+        SolutionQueue q = new SolutionQueue(1);
+        AtomicBoolean more = new AtomicBoolean(true);
+        Thread consumer = new Thread(()->
+            {
+                try
+                {
+                    more.set(q.hasNext());
+                }
+                catch( InterruptedException e )
+                {
+                }
+            });
+        consumer.start();
+        Thread.sleep(50);
+        q.close();
+        consumer.join(10000);
+        assertFalse( consumer.isAlive() );
+        assertFalse( more.get() );
+
+        SolutionQueue r = new SolutionQueue(1);
+        Thread producer = new Thread(()->
+            {
+                try
+                {
+                    r.put(new String[]{ "a" });
+                    r.put(new String[]{ "b" });
+                }
+                catch( InterruptedException e )
+                {
+                }
+            });
+        producer.start();
+        Thread.sleep(50);
+        r.close();
+        producer.join(10000);
+        assertFalse( producer.isAlive() );
+        assertFalse( r.hasNext() );
+    }
+
+    /**
+     * Closing an iterator from another thread, as the Stop button does,
+     * ends a consumer that is waiting in hasNext.
+     */
+    @Test
+    public void iteratorClosesFromAnotherThread() throws InterruptedException
+    {
+        Pento.MyIterator it = Pento.makeSolutions(PentoTest.BOARD_6X10).buffer(1).iterator();
+        Thread consumer = new Thread(()->
+            {
+                while( it.hasNext() ) it.next();
+            });
+        consumer.start();
+        Thread.sleep(50);
+        it.close();
+        consumer.join(10000);
+        assertFalse( consumer.isAlive() );
+        assertFalse( it.hasNext() );
+    }
+}
@@ -0,0 +1,81 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for the solve cache.
+ */
+public class SolveCacheTest
+{
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    static final String[] BOARD_L = { "                "
+                                    , "                "
+                                    , "                "
+                                    , "            ****"
+                                    };
+
+    // The board turned a quarter clockwise, inside a border of '*'.
+    static String[] turned( String[] b )
+    {
+        String[] res = new String[b[0].length()+2];
+        res[0] = res[res.length-1] = "*".repeat(b.length+2);
+        for( int y=0 ; y!=b[0].length() ; y++ )
+        {
+            StringBuilder line = new StringBuilder("*");
+            for( int x=b.length-1 ; x>=0 ; x-- ) line.append(b[x].charAt(y));
+            res[y+1] = line.append('*').toString();
+        }
+        return res;
+    }
+
+    /**
+     * Rotated, reflected and padded boards share a fingerprint and get
+     * the same solutions, mapped back onto each board.
+     */
+    @Test
+    public void symmetricBoardsShareEntries() throws Exception
+    {
+        assertEquals( SolveCache.fingerprint(BOARD_L), SolveCache.fingerprint(turned(BOARD_L)) );
+        assertNotEquals( SolveCache.fingerprint(BOARD_L), SolveCache.fingerprint(PentoTest.BOARD_3X20) );
+        SolveCache c = new SolveCache(4,100000,null);
+        for( String[] board: new String[][]{ BOARD_L, turned(BOARD_L), PentoTest.BOARD_CROSS } )
+        {
+            List<String[]> all = PentoTest.solve( Pento.makeSolutions(board) );
+            assertEquals( all.size(), c.count(board) );
+            assertEquals( PentoTest.asSet(all), PentoTest.asSet(c.solutions(board)) );
+        }
+        assertEquals( 1, c.count("***") );
+        assertEquals( 0, c.count("   ") );
+    }
+
+    /**
+     * Entries written to disk are found by a new cache, and only
+     * counts are kept for boards with too many solutions.
+     */
+    @Test
+    public void persistsOnDisk() throws Exception
+    {
+        File d = new File(dir.getRoot(),"cache");
+        new SolveCache(1,5,d.toPath()).count(PentoTest.BOARD_3X20);
+        new SolveCache(1,5,d.toPath()).count(PentoTest.BOARD_CROSS);
+        assertEquals( 2, d.list().length );
+        SolveCache c = new SolveCache(1,5,d.toPath());
+        assertEquals( 160, c.count(PentoTest.BOARD_CROSS) );
+        assertNull( c.solutions(PentoTest.BOARD_CROSS) );
+        assertEquals( 8, c.count(PentoTest.BOARD_3X20) );
+        assertNull( c.solutions(PentoTest.BOARD_3X20) );
+        c = new SolveCache(1,10,d.toPath());
+        assertEquals( 8, c.solutions(PentoTest.BOARD_3X20).size() );
+    }
+}
@@ -0,0 +1,36 @@
+package is.ingimarsson.pentosolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the search tree estimator.
+ */
+public class TreeEstimateTest
+{
+    /**
+     * The estimates are within a few standard errors of the true number
+     * of nodes, counted by walking the whole tree, and of the number of
+     * solutions on a board where they are not too rare.
+     */
+    @Test
+    public void estimatesTreeSize()
+    {
+        for( String[] board: new String[][]{ PentoTest.BOARD_CROSS, PentoTest.BOARD_8X8 } )
+        {
+            long n = Pento.countSolutions(board);
+            long nodes = new BitSearch(new BitBoard(Pento.library(),Pento.makeBoard(board)),null,false).nodes();
+            TreeEstimate e = TreeEstimate.of(20000,1,board);
+            assertEquals( nodes, e.nodes, 4*e.nodesError );
+            assertTrue( e.nodesError > 0 && e.nodesError < 0.1*nodes );
+            if( board == PentoTest.BOARD_CROSS ) assertEquals( n, e.solutions, 4*e.solutionsError );
+        }
+        TreeEstimate e = TreeEstimate.of(10,1,"     "," *** ","     ");
+        assertEquals( 0, e.nodes, 0 );
+        assertEquals( 0, e.solutions, 0 );
+        e = TreeEstimate.of(10,1,PentoTest.holes());
+        assertEquals( 1, e.solutions, 0 );
+    }
+}